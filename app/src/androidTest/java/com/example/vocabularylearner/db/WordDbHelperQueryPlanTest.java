@@ -0,0 +1,93 @@
+package com.example.vocabularylearner.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用EXPLAIN QUERY PLAN检查WordDbHelper的高频查询：不允许全表扫描（SCAN）或临时排序（USE TEMP B-TREE）
+ */
+@RunWith(AndroidJUnit4.class)
+public class WordDbHelperQueryPlanTest {
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = WordDbHelper.getInstance(appContext).getReadableDatabase();
+    }
+
+    @Test
+    public void wordsByLetter_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_WORDS_BY_LETTER, "A");
+    }
+
+    @Test
+    public void wordsByLetterAndFamiliarity_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_WORDS_BY_LETTER_AND_FAMILIARITY, "A", "0");
+    }
+
+    @Test
+    public void wordPage_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_WORD_PAGE, "A", "0", "apple", "50");
+    }
+
+    @Test
+    public void letterStats_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_LETTER_STATS, "A");
+    }
+
+    @Test
+    public void wordExists_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_WORD_EXISTS, "apple");
+    }
+
+    @Test
+    public void dueWords_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_DUE_WORDS, "1700000000000", "20");
+        assertUsesIndex(WordDbHelper.SQL_NEW_WORDS, "20");
+        assertUsesIndex(WordDbHelper.SQL_DUE_COUNT, "1700000000000");
+    }
+
+    @Test
+    public void searchPrefix_usesIndex() {
+        assertUsesIndex(WordDbHelper.SQL_SEARCH_PREFIX, "a", "b", "20", "0");
+        assertUsesIndex(WordDbHelper.SQL_SEARCH_PREFIX_COUNT, "a", "b");
+    }
+
+    @Test
+    public void searchCandidates_noTempSort() {
+        // 全文表只能按MATCH遍历（计划里是虚表SCAN），但不能再对候选排序，单词表要按主键查找
+        String detail = queryPlan(WordDbHelper.SQL_SEARCH_CANDIDATES, "english:ap* OR example:ap");
+        assertFalse("临时排序: " + detail, detail.contains("USE TEMP B-TREE"));
+        assertTrue("单词表未按主键查找: " + detail, detail.contains("INTEGER PRIMARY KEY"));
+        detail = queryPlan(WordDbHelper.SQL_SEARCH_CANDIDATES_CHINESE, "\"苹 果\"");
+        assertFalse("临时排序: " + detail, detail.contains("USE TEMP B-TREE"));
+    }
+
+    private void assertUsesIndex(String sql, String... args) {
+        String detail = queryPlan(sql, args);
+        assertFalse("全表扫描: " + sql + "\n" + detail, detail.contains("SCAN "));
+        assertFalse("临时排序: " + sql + "\n" + detail, detail.contains("USE TEMP B-TREE"));
+    }
+
+    private String queryPlan(String sql, String... args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detailIndex)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
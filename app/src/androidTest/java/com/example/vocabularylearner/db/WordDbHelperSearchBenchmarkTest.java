@@ -0,0 +1,155 @@
+package com.example.vocabularylearner.db;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.WordRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 搜索延迟基准：把词库补到20万个单词，测量searchWords在1~3个字母前缀、完整单词、多个词、例句词和中文输入下
+ * 翻前几页的耗时，p50/p95输出到logcat（TAG: WordSearchBenchmark），并断言中位数不超过20毫秒。
+ * 测试单词的例句带有不常见的标记词，结束时按标记删除
+ */
+@RunWith(AndroidJUnit4.class)
+public class WordDbHelperSearchBenchmarkTest {
+    private static final String TAG = "WordSearchBenchmark";
+    private static final String MARKER = "qzsearchbench";
+    private static final int TARGET_WORD_COUNT = 200_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int[] OFFSETS = {0, PAGE_SIZE, PAGE_SIZE * 2};
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURE_ROUNDS = 5;
+    private static final long MEDIAN_LIMIT_MS = 20;
+    private static final String CJK = "苹果香蕉学习单词测试语言书本时间朋友城市";
+
+    private static final String[] QUERIES = {
+            "s", "st", "str", "stone", "ice cream", "example", "time", MARKER, "学习", "测"
+    };
+
+    private Context context;
+    private WordDbHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        dbHelper = WordDbHelper.getInstance(context);
+        deleteBenchmarkWords();
+        int missing = TARGET_WORD_COUNT - dbHelper.getWordCount();
+        // 固定种子：每次生成相同的单词，英文与已有单词重复时跳过
+        Random random = new Random(42);
+        WordDbHelper.BulkInserter inserter = dbHelper.beginBulkInsert(MergePolicy.SKIP);
+        for (int i = 0; i < missing; i++) {
+            String english = randomWord(random, 3, 10);
+            String chinese = randomChinese(random) + "；" + randomChinese(random);
+            String example = "The " + english + " is an example of " + randomWord(random, 3, 7)
+                    + " time " + MARKER;
+            inserter.insert(new Word(english, "/ˈbentʃ/", chinese, example, false));
+        }
+        inserter.finish();
+        WordRepository.getInstance(context).notifyWordsReloaded();
+    }
+
+    @After
+    public void tearDown() {
+        deleteBenchmarkWords();
+        WordRepository.getInstance(context).notifyWordsReloaded();
+    }
+
+    @Test
+    public void searchWords_latency() {
+        Log.i(TAG, "words: " + dbHelper.getWordCount());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (String query : QUERIES) {
+                for (int offset : OFFSETS) {
+                    dbHelper.searchWords(query, offset, PAGE_SIZE);
+                }
+            }
+        }
+
+        List<Long> all = new ArrayList<>();
+        for (String query : QUERIES) {
+            long[] nanos = new long[MEASURE_ROUNDS * OFFSETS.length];
+            int n = 0;
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                for (int offset : OFFSETS) {
+                    long start = System.nanoTime();
+                    dbHelper.searchWords(query, offset, PAGE_SIZE);
+                    nanos[n++] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(nanos);
+            Log.i(TAG, "\"" + query + "\": p50 " + millis(percentile(nanos, 50))
+                    + " ms, p95 " + millis(percentile(nanos, 95)) + " ms");
+            for (long value : nanos) {
+                all.add(value);
+            }
+        }
+
+        long[] sorted = new long[all.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = all.get(i);
+        }
+        Arrays.sort(sorted);
+        double p50 = millis(percentile(sorted, 50));
+        Log.i(TAG, "all: p50 " + p50 + " ms, p95 " + millis(percentile(sorted, 95)) + " ms");
+        assertTrue("搜索中位数 " + p50 + " ms 超过 " + MEDIAN_LIMIT_MS + " ms", p50 <= MEDIAN_LIMIT_MS);
+    }
+
+    @Test
+    public void searchWords_pagesDoNotOverlap() {
+        // 第一段（英文前缀）和第二段（全文匹配）的分界落在某一页中间时，各页结果不能重复
+        List<Long> seen = new ArrayList<>();
+        for (int offset = 0; offset < PAGE_SIZE * 6; offset += PAGE_SIZE) {
+            for (Word word : dbHelper.searchWords("stone", offset, PAGE_SIZE)) {
+                assertFalse("重复结果: " + word.getEnglish(), seen.contains(word.getId()));
+                seen.add(word.getId());
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    private static String randomChinese(Random random) {
+        StringBuilder builder = new StringBuilder(3);
+        for (int i = 0; i < 3; i++) {
+            builder.append(CJK.charAt(random.nextInt(CJK.length())));
+        }
+        return builder.toString();
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // 按例句中的标记词删除测试单词，字母统计和全文索引由删除触发器同步
+    private void deleteBenchmarkWords() {
+        dbHelper.getWritableDatabase().delete("words", "example LIKE ?", new String[]{"%" + MARKER});
+    }
+}
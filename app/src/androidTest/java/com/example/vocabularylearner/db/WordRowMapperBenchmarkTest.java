@@ -0,0 +1,98 @@
+package com.example.vocabularylearner.db;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.vocabularylearner.entity.Word;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 行映射微基准：在10万行的游标上比较“每行按列名查下标”和WordRowMapper的单行耗时，
+ * 结果输出到logcat（TAG: WordRowMapperBenchmark），只校验映射结果一致，不对耗时做断言
+ */
+@RunWith(AndroidJUnit4.class)
+public class WordRowMapperBenchmarkTest {
+    private static final String TAG = "WordRowMapperBenchmark";
+    private static final int ROW_COUNT = 100_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURE_ROUNDS = 5;
+
+    private static final String[] COLUMNS = {
+            WordDbHelper.COLUMN_ID,
+            WordDbHelper.COLUMN_ENGLISH,
+            WordDbHelper.COLUMN_PHONETIC,
+            WordDbHelper.COLUMN_CHINESE,
+            WordDbHelper.COLUMN_EXAMPLE,
+            WordDbHelper.COLUMN_FAVORITE,
+            WordDbHelper.COLUMN_FAMILIAR
+    };
+
+    @Test
+    public void mapRows_perRowCost() {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS, ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            cursor.addRow(new Object[]{(long) i, "word" + i, "/wɜːd/", "单词" + i, "example " + i, i % 7 == 0 ? 1 : 0, i % 3 == 0 ? 1 : 0});
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapWithLookups(cursor);
+            mapWithMapper(cursor);
+        }
+
+        long lookupNanos = 0;
+        long mapperNanos = 0;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            Word lastByLookup = mapWithLookups(cursor);
+            lookupNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Word lastByMapper = mapWithMapper(cursor);
+            mapperNanos += System.nanoTime() - start;
+
+            assertEquals(lastByLookup.getId(), lastByMapper.getId());
+            assertEquals(lastByLookup.getEnglish(), lastByMapper.getEnglish());
+            assertEquals(lastByLookup.getExample(), lastByMapper.getExample());
+            assertEquals(lastByLookup.isFamiliar(), lastByMapper.isFamiliar());
+        }
+
+        long totalRows = (long) ROW_COUNT * MEASURE_ROUNDS;
+        Log.i(TAG, "getColumnIndexOrThrow per row: " + lookupNanos / totalRows + " ns/row");
+        Log.i(TAG, "WordRowMapper: " + mapperNanos / totalRows + " ns/row");
+        cursor.close();
+    }
+
+    // 优化前的写法：每行每列都按列名查一次下标
+    private static Word mapWithLookups(Cursor cursor) {
+        Word word = null;
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            word = new Word();
+            word.setId(cursor.getLong(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_ID)));
+            word.setEnglish(cursor.getString(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_ENGLISH)));
+            word.setPhonetic(cursor.getString(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_PHONETIC)));
+            word.setChinese(cursor.getString(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_CHINESE)));
+            word.setExample(cursor.getString(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_EXAMPLE)));
+            word.setFavorite(cursor.getInt(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_FAVORITE)) == 1);
+            word.setFamiliar(cursor.getInt(cursor.getColumnIndexOrThrow(WordDbHelper.COLUMN_FAMILIAR)) == 1);
+        }
+        return word;
+    }
+
+    private static Word mapWithMapper(Cursor cursor) {
+        Word word = null;
+        cursor.moveToPosition(-1);
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            word = mapper.map(cursor);
+        }
+        return word;
+    }
+}
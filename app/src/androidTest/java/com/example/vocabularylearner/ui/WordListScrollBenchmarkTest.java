@@ -0,0 +1,132 @@
+package com.example.vocabularylearner.ui;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.ViewConfiguration;
+import android.view.Window;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.db.MergePolicy;
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.WordRepository;
+import com.example.vocabularylearner.ui.adapter.ItemViewPreloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 单词列表滚动基准：在一个有1万个单词的字母下打开单词列表页，比较关闭和开启列表项预创建时
+ * 第一次快速滑动的掉帧数（总耗时超过帧截止时间的帧），结果输出到logcat（TAG: WordListScrollBenchmark），
+ * 不对帧数做断言。测试单词以不常见的前缀插入，结束时删除
+ */
+@RunWith(AndroidJUnit4.class)
+public class WordListScrollBenchmarkTest {
+    private static final String TAG = "WordListScrollBenchmark";
+    private static final String LETTER = "Q";
+    private static final String PREFIX = "qzbench";
+    private static final int WORD_COUNT = 10_000;
+    private static final int ROUNDS = 3;
+    // 打开页面后等待首屏和预创建完成，滑动后等待滚动停止
+    private static final long SETTLE_MS = 1_000;
+    private static final long FLING_MS = 2_000;
+
+    private Context context;
+    private WordDbHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        dbHelper = WordDbHelper.getInstance(context);
+        deleteBenchmarkWords();
+        WordDbHelper.BulkInserter inserter = dbHelper.beginBulkInsert(MergePolicy.SKIP);
+        for (int i = 0; i < WORD_COUNT; i++) {
+            inserter.insert(new Word(String.format("%s%05d", PREFIX, i), "/bentʃ/", "测试单词" + i, "example " + i, false));
+        }
+        inserter.finish();
+        WordRepository.getInstance(context).notifyWordsReloaded();
+    }
+
+    @After
+    public void tearDown() {
+        ItemViewPreloader.setEnabled(true);
+        deleteBenchmarkWords();
+        WordRepository.getInstance(context).notifyWordsReloaded();
+    }
+
+    @Test
+    public void firstFling_jankyFrames() {
+        int jankyWithout = 0;
+        int jankyWith = 0;
+        int totalWithout = 0;
+        int totalWith = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int[] without = measureFirstFling(false);
+            jankyWithout += without[0];
+            totalWithout += without[1];
+
+            int[] with = measureFirstFling(true);
+            jankyWith += with[0];
+            totalWith += with[1];
+        }
+        Log.i(TAG, "without preload: " + jankyWithout + " janky / " + totalWithout + " frames");
+        Log.i(TAG, "with preload: " + jankyWith + " janky / " + totalWith + " frames");
+    }
+
+    // 打开单词列表页并快速滑动一次，返回{掉帧数, 总帧数}
+    private int[] measureFirstFling(boolean preload) {
+        ItemViewPreloader.setEnabled(preload);
+        AtomicInteger janky = new AtomicInteger();
+        AtomicInteger total = new AtomicInteger();
+        HandlerThread metricsThread = new HandlerThread(TAG);
+        metricsThread.start();
+        Window.OnFrameMetricsAvailableListener listener = (window, metrics, dropCount) -> {
+            total.incrementAndGet();
+            if (metrics.getMetric(FrameMetrics.TOTAL_DURATION) > metrics.getMetric(FrameMetrics.DEADLINE)) {
+                janky.incrementAndGet();
+            }
+        };
+
+        Intent intent = new Intent(context, WordListActivity.class);
+        intent.putExtra("letter", LETTER);
+        try (ActivityScenario<WordListActivity> scenario = ActivityScenario.launch(intent)) {
+            SystemClock.sleep(SETTLE_MS);
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            scenario.onActivity(activity -> {
+                RecyclerView recyclerView = activity.findViewById(R.id.recycler_view_words);
+                assertNotNull(recyclerView);
+                assertTrue(recyclerView.getAdapter() != null && recyclerView.getAdapter().getItemCount() > 0);
+                activity.getWindow().addOnFrameMetricsAvailableListener(listener, new Handler(metricsThread.getLooper()));
+                int velocity = ViewConfiguration.get(activity).getScaledMaximumFlingVelocity();
+                recyclerView.fling(0, velocity);
+            });
+            SystemClock.sleep(FLING_MS);
+            scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(listener));
+        } finally {
+            metricsThread.quitSafely();
+        }
+        return new int[]{janky.get(), total.get()};
+    }
+
+    // 删除测试单词，字母统计由删除触发器同步
+    private void deleteBenchmarkWords() {
+        dbHelper.getWritableDatabase().delete("words", "english LIKE ?", new String[]{PREFIX + "%"});
+    }
+}
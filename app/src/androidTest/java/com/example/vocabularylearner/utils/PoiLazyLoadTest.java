@@ -0,0 +1,85 @@
+package com.example.vocabularylearner.utils;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.vocabularylearner.MainActivity;
+import com.example.vocabularylearner.entity.Word;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 启动路径不加载POI：启动MainActivity直到首帧、导入CSV文件，都不应加载POI的类。
+ * 启动到主线程空闲的耗时输出到logcat（TAG: PoiLazyLoad）；冷启动的精确耗时可用 adb shell am start -W
+ * 或在Perfetto中查看“MainActivity.onCreate”区段和完全绘制时间
+ */
+@RunWith(AndroidJUnit4.class)
+public class PoiLazyLoadTest {
+    private static final String TAG = "PoiLazyLoad";
+    private static final String[] POI_CLASSES = {
+            "com.example.vocabularylearner.utils.PoiSpreadsheetEngine",
+            "org.apache.poi.openxml4j.opc.OPCPackage",
+            "org.apache.poi.poifs.filesystem.POIFSFileSystem",
+            "org.apache.poi.xssf.streaming.SXSSFWorkbook"
+    };
+
+    @Test
+    public void launchMainActivity_doesNotLoadPoi() throws Exception {
+        long start = SystemClock.uptimeMillis();
+        try (ActivityScenario<MainActivity> ignored = ActivityScenario.launch(MainActivity.class)) {
+            // launch返回时Activity已是RESUMED，再等主线程空闲，首帧已经提交
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            Log.i(TAG, "launch to idle: " + (SystemClock.uptimeMillis() - start) + " ms");
+
+            assertPoiNotLoaded();
+        }
+    }
+
+    @Test
+    public void parseCsv_doesNotLoadPoi() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File file = File.createTempFile("words", ".csv", context.getCacheDir());
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write("英文,音标,中文,例句,熟悉,收藏\napple,,苹果,,1,0\n".getBytes(StandardCharsets.UTF_8));
+            }
+            assertTrue(WordListParser.isTextFile(file));
+
+            List<Word> words = new ArrayList<>();
+            WordListParser.parse(file, "text/csv", words::add);
+            assertEquals(1, words.size());
+            assertEquals("apple", words.get(0).getEnglish());
+            assertTrue(words.get(0).isFamiliar());
+
+            assertPoiNotLoaded();
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private static void assertPoiNotLoaded() throws Exception {
+        ClassLoader loader = MainActivity.class.getClassLoader();
+        Method findLoadedClass = ClassLoader.class.getDeclaredMethod("findLoadedClass", String.class);
+        findLoadedClass.setAccessible(true);
+        for (String name : POI_CLASSES) {
+            assertNull(name + " 不应被加载", findLoadedClass.invoke(loader, name));
+        }
+    }
+}
@@ -5,10 +5,12 @@ import static androidx.core.content.ContentProviderCompat.requireContext;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Trace;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -20,39 +22,65 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.vocabularylearner.entity.LetterStats;
+import com.example.vocabularylearner.db.MergePolicy;
 import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.ImportResult;
 import com.example.vocabularylearner.entity.Letter;
 import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.ImportPipeline;
+import com.example.vocabularylearner.repository.WordRepository;
+import com.example.vocabularylearner.ui.QuizActivity;
+import com.example.vocabularylearner.ui.ReviewActivity;
+import com.example.vocabularylearner.ui.SearchActivity;
 import com.example.vocabularylearner.ui.WordListActivity;
+import com.example.vocabularylearner.ui.adapter.ItemViewPreloader;
 import com.example.vocabularylearner.ui.adapter.LetterAdapter;
 import com.example.vocabularylearner.utils.ExcelUtils;
+import com.example.vocabularylearner.utils.PermissionUtils;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements WordRepository.WordChangeListener {
     private static final int READ_EXCEL_REQUEST_CODE = 1001;
     private static final int STORAGE_PERMISSION_REQUEST = 1002;
+    private static final int EXPORT_REQUEST_CODE = 1003;
+    // A~Z共26张字母卡片
+    private static final int LETTER_COUNT = 26;
 
     private RecyclerView letterRecyclerView;
     private LetterAdapter letterAdapter;
+    private ItemViewPreloader letterViewPreloader;
     private WordDbHelper dbHelper;
+    private WordRepository repository;
     private ExecutorService executorService;
     private TextView tvPermissionHint;
+    // 已到期待复习的单词数，显示在“复习”菜单上
+    private int dueCount;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // 启动耗时可在Perfetto/systrace中按区段查看，字母统计显示后报告完全绘制
+        Trace.beginSection("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
-
-
         setContentView(R.layout.activity_main);
 
+        // 字母卡片在后台预创建，与后面的初始化和读取统计同时进行
+        letterViewPreloader = new ItemViewPreloader(this, R.layout.item_letter);
+        letterViewPreloader.preload(LETTER_COUNT);
+
 
         // 初始化
-        dbHelper = new WordDbHelper(this);
+        dbHelper = WordDbHelper.getInstance(this);
+        repository = WordRepository.getInstance(this);
+        repository.addListener(this);
         executorService = Executors.newSingleThreadExecutor();
         
         // 绑定控件
@@ -67,6 +95,7 @@ public class MainActivity extends AppCompatActivity {
         
         // 检查权限并加载字母数据
         checkStoragePermission();
+        Trace.endSection();
     }
 
 
@@ -88,6 +117,32 @@ public class MainActivity extends AppCompatActivity {
         return true; // 返回true表示显示菜单
     }
 
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        MenuItem reviewItem = menu.findItem(R.id.action_review);
+        if (reviewItem != null) {
+            reviewItem.setTitle(dueCount > 0 ? "复习（" + dueCount + "）" : "复习");
+        }
+        return super.onPrepareOptionsMenu(menu);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // 从复习页返回时到期数已经变化
+        loadDueCount();
+    }
+
+    private void loadDueCount() {
+        executorService.execute(() -> {
+            int count = repository.getDueCount();
+            runOnUiThread(() -> {
+                dueCount = count;
+                invalidateOptionsMenu();
+            });
+        });
+    }
+
     private void initLetterRecyclerView() {
         List<Letter> letters = new ArrayList<>();
         // 添加A-Z字母
@@ -96,6 +151,7 @@ public class MainActivity extends AppCompatActivity {
         }
         
         letterAdapter = new LetterAdapter(letters);
+        letterAdapter.setViewPreloader(letterViewPreloader);
         letterRecyclerView.setLayoutManager(new GridLayoutManager(this, 3));
         letterRecyclerView.setAdapter(letterAdapter);
         
@@ -109,41 +165,44 @@ public class MainActivity extends AppCompatActivity {
 
     private void loadLetterStats() {
         executorService.execute(() -> {
-            for (int i = 0; i < letterAdapter.getItemCount(); i++) {
-                Letter letter = letterAdapter.getItem(i);
-                LetterStats stats = dbHelper.getLetterStats(letter.getLetter());
-                
-                int finalI = i;
-                runOnUiThread(() -> {
-                    letter.setTotalCount(stats.getTotalCount());
-                    letter.setFamiliarCount(stats.getFamiliarCount());
-                    letterAdapter.notifyItemChanged(finalI);
-                });
-            }
+            // 一次分组查询拿到全部字母的统计，再一次性刷新列表
+            Map<String, LetterStats> statsMap = repository.getAllLetterStats();
+            runOnUiThread(() -> {
+                letterAdapter.setLetterStats(statsMap);
+                // 只有第一次调用会被系统记录
+                reportFullyDrawn();
+            });
         });
     }
 
     private void checkStoragePermission() {
         // 检查存储权限（根据Android版本处理）
-        if (ExcelUtils.hasStoragePermission(this)) {
+        if (PermissionUtils.hasStoragePermission(this)) {
             tvPermissionHint.setVisibility(View.GONE);
             loadLetterStats();
         } else {
             tvPermissionHint.setVisibility(View.VISIBLE);
-            tvPermissionHint.setOnClickListener(v -> ExcelUtils.requestStoragePermission(this, STORAGE_PERMISSION_REQUEST));
+            tvPermissionHint.setOnClickListener(v -> PermissionUtils.requestStoragePermission(this, STORAGE_PERMISSION_REQUEST));
         }
     }
 
     private void openFilePicker() {
-        if (!ExcelUtils.hasStoragePermission(this)) {
-            ExcelUtils.requestStoragePermission(this, STORAGE_PERMISSION_REQUEST);
+        if (!PermissionUtils.hasStoragePermission(this)) {
+            PermissionUtils.requestStoragePermission(this, STORAGE_PERMISSION_REQUEST);
             return;
         }
         
         Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
         intent.addCategory(Intent.CATEGORY_OPENABLE);
-        intent.setType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"application/vnd.ms-excel", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"});
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{
+                "application/vnd.ms-excel",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                "text/csv",
+                "text/comma-separated-values",
+                "text/tab-separated-values",
+                "text/plain"
+        });
         startActivityForResult(intent, READ_EXCEL_REQUEST_CODE);
     }
 
@@ -154,56 +213,171 @@ public class MainActivity extends AppCompatActivity {
         if (requestCode == READ_EXCEL_REQUEST_CODE && resultCode == RESULT_OK && data != null) {
             Uri uri = data.getData();
             if (uri != null) {
-                importExcelFile(uri);
+                showMergePolicyDialog(uri);
+            }
+        } else if (requestCode == EXPORT_REQUEST_CODE && resultCode == RESULT_OK && data != null) {
+            Uri uri = data.getData();
+            if (uri != null) {
+                exportWords(uri);
             }
         }
     }
 
-    private void importExcelFile(Uri uri) {
-        showToast("开始导入单词...");
-        
+    // 选择已存在单词的处理方式，然后开始导入
+    private void showMergePolicyDialog(Uri uri) {
+        MergePolicy[] policies = {
+                MergePolicy.SKIP,
+                MergePolicy.OVERWRITE,
+                MergePolicy.OVERWRITE_KEEP_FAMILIARITY
+        };
+        String[] labels = {
+                "跳过已存在的单词",
+                "覆盖释义和熟悉度",
+                "覆盖释义，保留熟悉度"
+        };
+        new AlertDialog.Builder(this)
+                .setTitle("已存在的单词")
+                .setItems(labels, (dialog, which) -> importExcelFile(uri, policies[which]))
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void importExcelFile(Uri uri, MergePolicy policy) {
+        // 解析、规整和写库在流水线的不同线程上同时进行，不在内存中保留整个单词列表
+        ImportPipeline pipeline = new ImportPipeline(this, dbHelper, policy);
+
+        View progressView = getLayoutInflater().inflate(R.layout.dialog_progress, null);
+        TextView tvProgress = progressView.findViewById(R.id.tv_progress);
+        tvProgress.setText("正在读取文件...");
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("正在导入")
+                .setView(progressView)
+                .setCancelable(false)
+                // 取消后已处理的行会保留，下次导入同一文件时从中断处继续
+                .setNegativeButton("取消", (dialog, which) -> pipeline.cancel())
+                .show();
+
+        pipeline.setOnProgressListener(new ImportPipeline.OnProgressListener() {
+            @Override
+            public void onResumed(int resumedRows) {
+                runOnUiThread(() -> showToast("从上次中断的第 " + (resumedRows + 1) + " 行继续导入"));
+            }
+
+            @Override
+            public void onProgress(int parsedRows, ImportResult result, int rowsPerSecond) {
+                String text = "已解析 " + parsedRows + " 行（" + rowsPerSecond + " 行/秒）\n"
+                        + "新增 " + result.getInsertedCount()
+                        + "，更新 " + result.getUpdatedCount()
+                        + "，跳过 " + result.getSkippedCount();
+                runOnUiThread(() -> tvProgress.setText(text));
+            }
+        });
+
         executorService.execute(() -> {
             try {
-                // 解析Excel文件
-                List<Word> words = ExcelUtils.parseExcelFile(this, uri);
-                
-                if (words == null || words.isEmpty()) {
+                ImportResult result = pipeline.run(uri);
+
+                repository.notifyWordsReloaded();
+
+                if (result.getTotalCount() == 0) {
                     runOnUiThread(() -> {
+                        progressDialog.dismiss();
                         showToast("未解析到单词数据，请检查文件格式");
                     });
                     return;
                 }
-                
-                // 保存到数据库
-                AtomicInteger newWordCount = new AtomicInteger(0);
-                
-                for (Word word : words) {
-                    if (!dbHelper.isWordExists(word.getEnglish())) {
-                        dbHelper.addWord(word);
-                        newWordCount.incrementAndGet();
-                    }
-                }
-                
+
                 // 通知UI结果
                 runOnUiThread(() -> {
-                    int count = newWordCount.get();
-                    if (count > 0) {
-                        showToast("成功导入 " + count + " 个新单词");
-                        loadLetterStats(); // 更新字母统计
+                    progressDialog.dismiss();
+                    int count = result.getInsertedCount();
+                    int updated = result.getUpdatedCount();
+                    if (count > 0 || updated > 0) {
+                        // 字母统计由onWordsReloaded刷新
+                        showToast("成功导入 " + count + " 个新单词" + (updated > 0 ? "，更新 " + updated + " 个" : ""));
                     } else {
                         showToast("所有单词已存在");
                     }
                 });
-                
+
+            } catch (CancellationException e) {
+                // 已提交的单词保留，页面需要刷新
+                repository.notifyWordsReloaded();
+                runOnUiThread(() -> {
+                    progressDialog.dismiss();
+                    showToast("导入已取消，再次导入该文件时将从中断处继续");
+                });
             } catch (Exception e) {
                 e.printStackTrace();
+                repository.notifyWordsReloaded();
                 runOnUiThread(() -> {
+                    progressDialog.dismiss();
                     showToast("导入失败: " + e.getMessage());
                 });
             }
         });
     }
 
+    // 选择导出格式，然后让用户选择保存位置
+    private void showExportFormatDialog() {
+        String[] labels = {"Excel (.xlsx)", "CSV (.csv)"};
+        new AlertDialog.Builder(this)
+                .setTitle("导出格式")
+                .setItems(labels, (dialog, which) -> {
+                    boolean asCsv = which == 1;
+                    String date = new SimpleDateFormat("yyyyMMdd", Locale.ROOT).format(new Date());
+                    Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                    intent.addCategory(Intent.CATEGORY_OPENABLE);
+                    intent.setType(asCsv ? ExcelUtils.MIME_TYPE_CSV : ExcelUtils.MIME_TYPE_XLSX);
+                    intent.putExtra(Intent.EXTRA_TITLE, "单词本_" + date + (asCsv ? ".csv" : ".xlsx"));
+                    startActivityForResult(intent, EXPORT_REQUEST_CODE);
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void exportWords(Uri uri) {
+        // 按创建文件时选择的类型决定格式
+        String type = getContentResolver().getType(uri);
+        boolean asCsv = type != null && type.startsWith("text/");
+
+        View progressView = getLayoutInflater().inflate(R.layout.dialog_progress, null);
+        ProgressBar progressBar = progressView.findViewById(R.id.progress_bar);
+        TextView tvProgress = progressView.findViewById(R.id.tv_progress);
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("正在导出")
+                .setView(progressView)
+                .setCancelable(false)
+                .show();
+
+        executorService.execute(() -> {
+            try {
+                int total = repository.getWordCount();
+                runOnUiThread(() -> {
+                    progressBar.setIndeterminate(total == 0);
+                    progressBar.setMax(Math.max(total, 1));
+                });
+
+                int count = ExcelUtils.exportWords(this, uri, repository.iterateAllWords(), asCsv,
+                        exported -> runOnUiThread(() -> {
+                            progressBar.setProgress(exported);
+                            tvProgress.setText(exported + " / " + total);
+                        }));
+
+                runOnUiThread(() -> {
+                    progressDialog.dismiss();
+                    showToast("已导出 " + count + " 个单词");
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                runOnUiThread(() -> {
+                    progressDialog.dismiss();
+                    showToast("导出失败: " + e.getMessage());
+                });
+            }
+        });
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
@@ -216,25 +390,45 @@ public class MainActivity extends AppCompatActivity {
         Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
     }
 
+    @Override
+    public void onWordChanged(Word word) {
+        loadLetterStats(); // 仓库已增量更新统计缓存，这里不会查库
+    }
+
+    @Override
+    public void onWordsReloaded() {
+        loadLetterStats();
+        loadDueCount();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        dbHelper.close();
+        repository.removeListener(this);
         executorService.shutdown();
+        letterViewPreloader.close();
     }
 
 
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         int itemId = item.getItemId();
-        if (itemId == R.id.btn_import2) {
+        if (itemId == R.id.action_search) {
+            startActivity(new Intent(this, SearchActivity.class));
+            return true;
+        } else if (itemId == R.id.action_review) {
+            startActivity(new Intent(this, ReviewActivity.class));
+            return true;
+        } else if (itemId == R.id.action_quiz) {
+            startActivity(new Intent(this, QuizActivity.class));
+            return true;
+        } else if (itemId == R.id.btn_import2) {
             Toast.makeText(this, "执行导入操作", Toast.LENGTH_SHORT).show();
             // 此处添加导入逻辑（如打开文件选择器、读取数据等）
             openFilePicker();
             return true;
         } else if (itemId == R.id.action_export2) {
-            Toast.makeText(this, "执行导出操作", Toast.LENGTH_SHORT).show();
-            // 此处添加导出逻辑（如写入文件、保存数据等）
+            showExportFormatDialog();
             return true;
         } else if (itemId == R.id.action_clear2) {
             showClearConfirmDialog();
@@ -259,11 +453,9 @@ public class MainActivity extends AppCompatActivity {
 
     private void clearAllData() {
         executorService.execute(() -> {
-            dbHelper.clearAllData();
-            runOnUiThread(() -> {
-                showToast("所有单词数据已清空");
-                loadLetterStats(); // 刷新字母统计
-            });
+            // 字母统计由onWordsReloaded刷新
+            repository.clearAllData();
+            runOnUiThread(() -> showToast("所有单词数据已清空"));
         });
     }
 }
@@ -0,0 +1,13 @@
+package com.example.vocabularylearner.db;
+
+/**
+ * 重复导入时的合并策略：决定导入文件中已存在（英文不区分大小写相同）的单词如何处理
+ */
+public enum MergePolicy {
+    // 跳过已存在的单词，保留数据库中的全部内容
+    SKIP,
+    // 用导入文件覆盖音标、中文、例句和熟悉度
+    OVERWRITE,
+    // 用导入文件覆盖音标、中文、例句，保留用户的熟悉度和收藏状态
+    OVERWRITE_KEEP_FAMILIARITY
+}
@@ -3,32 +3,84 @@ package com.example.vocabularylearner.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
+import com.example.vocabularylearner.entity.ImportResult;
 import com.example.vocabularylearner.entity.LetterStats;
+import com.example.vocabularylearner.entity.ReviewLog;
+import com.example.vocabularylearner.entity.ReviewState;
 import com.example.vocabularylearner.entity.Word;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 public class WordDbHelper extends SQLiteOpenHelper {
     // 数据库信息
     private static final String DATABASE_NAME = "Vocabulary.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 8;
     
     // 单词表
     private static final String TABLE_WORDS = "words";
     
+    // 全文检索表（FTS4，由触发器随单词表同步）
+    private static final String TABLE_WORDS_FTS = "words_fts";
+    // 把中文逐字用空格分开的SQL函数，使每个汉字成为一个词元，短语查询即可实现中文子串匹配
+    private static final String FUNCTION_CJK_SPLIT = "cjk_split";
+
+    // 字母统计表（由触发器随单词表增量维护）
+    private static final String TABLE_LETTER_STATS = "letter_stats";
+    // 导入检查点表：记录每个文件已提交到第几行，导入中断后从这里继续
+    private static final String TABLE_IMPORT_CHECKPOINTS = "import_checkpoints";
+    // 复习记录表：每次回答追加一行，过期的记录定期汇总进复习统计表后删除
+    private static final String TABLE_REVIEW_LOG = "review_log";
+    // 复习统计表：每个单词已汇总的复习次数、各评分次数和用时
+    private static final String TABLE_REVIEW_STATS = "review_stats";
+
     // 表字段
-    private static final String COLUMN_ID = "_id";
-    private static final String COLUMN_ENGLISH = "english";
-    private static final String COLUMN_PHONETIC = "phonetic";
-    private static final String COLUMN_CHINESE = "chinese";
-    private static final String COLUMN_EXAMPLE = "example";
-    private static final String COLUMN_FAVORITE = "is_favorite";
-    private static final String COLUMN_FAMILIAR = "is_familiar";
+    static final String COLUMN_ID = "_id";
+    static final String COLUMN_ENGLISH = "english";
+    static final String COLUMN_PHONETIC = "phonetic";
+    static final String COLUMN_CHINESE = "chinese";
+    static final String COLUMN_EXAMPLE = "example";
+    static final String COLUMN_FAVORITE = "is_favorite";
+    static final String COLUMN_FAMILIAR = "is_familiar";
+    // 间隔重复调度：难度系数、复习间隔（天）、下次复习时间（毫秒，NULL为新单词）、忘记次数、连续答对次数
+    static final String COLUMN_EASE = "ease";
+    static final String COLUMN_INTERVAL = "interval_days";
+    static final String COLUMN_DUE_AT = "due_at";
+    static final String COLUMN_LAPSES = "lapses";
+    static final String COLUMN_REPS = "reps";
     private static final String COLUMN_FIRST_LETTER = "first_letter";
+    private static final String COLUMN_TOTAL = "total";
+    private static final String COLUMN_FAMILIAR_COUNT = "familiar";
+    private static final String COLUMN_FAVORITE_COUNT = "favorite";
+    private static final String COLUMN_SOURCE = "source";
+    private static final String COLUMN_WORD_ID = "word_id";
+    private static final String COLUMN_REVIEWED_AT = "reviewed_at";
+    private static final String COLUMN_GRADE = "grade";
+    private static final String COLUMN_RESPONSE_MS = "response_ms";
+    private static final String COLUMN_REVIEW_COUNT = "review_count";
+    private static final String COLUMN_AGAIN_COUNT = "again_count";
+    private static final String COLUMN_HARD_COUNT = "hard_count";
+    private static final String COLUMN_GOOD_COUNT = "good_count";
+    private static final String COLUMN_EASY_COUNT = "easy_count";
+    private static final String COLUMN_TOTAL_RESPONSE_MS = "total_response_ms";
+    private static final String COLUMN_FIRST_REVIEWED_AT = "first_reviewed_at";
+    private static final String COLUMN_LAST_REVIEWED_AT = "last_reviewed_at";
+    private static final String COLUMN_CONTENT_HASH = "content_hash";
+    private static final String COLUMN_MERGE_POLICY = "merge_policy";
+    private static final String COLUMN_ROW_COUNT = "row_count";
+    private static final String COLUMN_INSERTED = "inserted";
+    private static final String COLUMN_UPDATED = "updated";
+    private static final String COLUMN_SKIPPED = "skipped";
+    private static final String COLUMN_UPDATED_AT = "updated_at";
 
     // 创建表SQL
     private static final String CREATE_TABLE_WORDS = "CREATE TABLE " + TABLE_WORDS + "("
@@ -39,23 +91,413 @@ public class WordDbHelper extends SQLiteOpenHelper {
             + COLUMN_EXAMPLE + " TEXT,"
             + COLUMN_FAVORITE + " INTEGER DEFAULT 0,"
             + COLUMN_FAMILIAR + " INTEGER DEFAULT 0,"
-            + COLUMN_FIRST_LETTER + " TEXT NOT NULL)";
+            + COLUMN_FIRST_LETTER + " TEXT NOT NULL,"
+            + COLUMN_EASE + " REAL NOT NULL DEFAULT " + ReviewState.INITIAL_EASE + ","
+            + COLUMN_INTERVAL + " INTEGER NOT NULL DEFAULT 0,"
+            + COLUMN_DUE_AT + " INTEGER,"
+            + COLUMN_LAPSES + " INTEGER NOT NULL DEFAULT 0,"
+            + COLUMN_REPS + " INTEGER NOT NULL DEFAULT 0)";
+
+    private static final String CREATE_TABLE_LETTER_STATS = "CREATE TABLE IF NOT EXISTS " + TABLE_LETTER_STATS + "("
+            + COLUMN_FIRST_LETTER + " TEXT PRIMARY KEY,"
+            + COLUMN_TOTAL + " INTEGER NOT NULL DEFAULT 0,"
+            + COLUMN_FAMILIAR_COUNT + " INTEGER NOT NULL DEFAULT 0,"
+            + COLUMN_FAVORITE_COUNT + " INTEGER NOT NULL DEFAULT 0)";
+
+    // 统计表触发器：插入、删除、熟悉/收藏/首字母变化时增量更新对应字母的计数
+    private static final String ADD_TO_LETTER_STATS =
+            "INSERT OR IGNORE INTO " + TABLE_LETTER_STATS + "(" + COLUMN_FIRST_LETTER + ") VALUES (NEW." + COLUMN_FIRST_LETTER + ");"
+            + " UPDATE " + TABLE_LETTER_STATS + " SET "
+            + COLUMN_TOTAL + " = " + COLUMN_TOTAL + " + 1, "
+            + COLUMN_FAMILIAR_COUNT + " = " + COLUMN_FAMILIAR_COUNT + " + NEW." + COLUMN_FAMILIAR + ", "
+            + COLUMN_FAVORITE_COUNT + " = " + COLUMN_FAVORITE_COUNT + " + NEW." + COLUMN_FAVORITE
+            + " WHERE " + COLUMN_FIRST_LETTER + " = NEW." + COLUMN_FIRST_LETTER + ";";
+    private static final String REMOVE_FROM_LETTER_STATS =
+            " UPDATE " + TABLE_LETTER_STATS + " SET "
+            + COLUMN_TOTAL + " = " + COLUMN_TOTAL + " - 1, "
+            + COLUMN_FAMILIAR_COUNT + " = " + COLUMN_FAMILIAR_COUNT + " - OLD." + COLUMN_FAMILIAR + ", "
+            + COLUMN_FAVORITE_COUNT + " = " + COLUMN_FAVORITE_COUNT + " - OLD." + COLUMN_FAVORITE
+            + " WHERE " + COLUMN_FIRST_LETTER + " = OLD." + COLUMN_FIRST_LETTER + ";";
+    private static final String CREATE_TRIGGER_STATS_INSERT = "CREATE TRIGGER IF NOT EXISTS trg_words_stats_insert"
+            + " AFTER INSERT ON " + TABLE_WORDS + " BEGIN " + ADD_TO_LETTER_STATS + " END";
+    private static final String CREATE_TRIGGER_STATS_DELETE = "CREATE TRIGGER IF NOT EXISTS trg_words_stats_delete"
+            + " AFTER DELETE ON " + TABLE_WORDS + " BEGIN " + REMOVE_FROM_LETTER_STATS + " END";
+    private static final String CREATE_TRIGGER_STATS_UPDATE = "CREATE TRIGGER IF NOT EXISTS trg_words_stats_update"
+            + " AFTER UPDATE OF " + COLUMN_FAMILIAR + ", " + COLUMN_FAVORITE + ", " + COLUMN_FIRST_LETTER
+            + " ON " + TABLE_WORDS
+            + " WHEN OLD." + COLUMN_FAMILIAR + " IS NOT NEW." + COLUMN_FAMILIAR
+            + " OR OLD." + COLUMN_FAVORITE + " IS NOT NEW." + COLUMN_FAVORITE
+            + " OR OLD." + COLUMN_FIRST_LETTER + " IS NOT NEW." + COLUMN_FIRST_LETTER
+            + " BEGIN " + REMOVE_FROM_LETTER_STATS + " " + ADD_TO_LETTER_STATS + " END";
+
+    /**
+     * 复习间隔达到这个天数的单词算作已熟悉：熟悉度由调度状态派生，列表页的两个标签页和字母统计仍按熟悉度
+     */
+    public static final int FAMILIAR_INTERVAL_DAYS = 21;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final String SQL_NOW_MILLIS = "(CAST(strftime('%s', 'now') AS INTEGER) * 1000)";
+
+    // 手动标记或导入为熟悉的单词直接按已熟悉安排复习，取消熟悉的单词立即到期重新学习。
+    // 调度器写入时间隔和熟悉度一起变化，不会触发这里的更新
+    private static final String CREATE_TRIGGER_SRS_INSERT = "CREATE TRIGGER IF NOT EXISTS trg_words_srs_insert"
+            + " AFTER INSERT ON " + TABLE_WORDS
+            + " WHEN NEW." + COLUMN_FAMILIAR + " = 1 AND NEW." + COLUMN_DUE_AT + " IS NULL"
+            + " BEGIN UPDATE " + TABLE_WORDS + " SET "
+            + COLUMN_INTERVAL + " = " + FAMILIAR_INTERVAL_DAYS + ", "
+            + COLUMN_REPS + " = 1, "
+            + COLUMN_DUE_AT + " = " + SQL_NOW_MILLIS + " + " + FAMILIAR_INTERVAL_DAYS * DAY_MILLIS
+            + " WHERE " + COLUMN_ID + " = NEW." + COLUMN_ID + "; END";
+    private static final String CREATE_TRIGGER_SRS_FAMILIAR = "CREATE TRIGGER IF NOT EXISTS trg_words_srs_familiar"
+            + " AFTER UPDATE OF " + COLUMN_FAMILIAR + " ON " + TABLE_WORDS
+            + " WHEN NEW." + COLUMN_FAMILIAR + " IS NOT OLD." + COLUMN_FAMILIAR
+            + " AND NEW." + COLUMN_INTERVAL + " IS OLD." + COLUMN_INTERVAL
+            + " BEGIN UPDATE " + TABLE_WORDS + " SET "
+            + COLUMN_INTERVAL + " = CASE WHEN NEW." + COLUMN_FAMILIAR + " = 1"
+            + " THEN MAX(OLD." + COLUMN_INTERVAL + ", " + FAMILIAR_INTERVAL_DAYS + ") ELSE 0 END, "
+            + COLUMN_REPS + " = CASE WHEN NEW." + COLUMN_FAMILIAR + " = 1 THEN MAX(OLD." + COLUMN_REPS + ", 1) ELSE 0 END, "
+            + COLUMN_DUE_AT + " = " + SQL_NOW_MILLIS + " + CASE WHEN NEW." + COLUMN_FAMILIAR + " = 1"
+            + " THEN MAX(OLD." + COLUMN_INTERVAL + ", " + FAMILIAR_INTERVAL_DAYS + ") * " + DAY_MILLIS + " ELSE 0 END"
+            + " WHERE " + COLUMN_ID + " = NEW." + COLUMN_ID + "; END";
+
+    // 从单词表重新计算字母统计（用于建表后初始化和修复计数偏差）
+    private static final String SQL_AGGREGATE_LETTER_STATS = "SELECT " + COLUMN_FIRST_LETTER + ", "
+            + "COUNT(*), SUM(" + COLUMN_FAMILIAR + "), SUM(" + COLUMN_FAVORITE + ") FROM " + TABLE_WORDS
+            + " GROUP BY " + COLUMN_FIRST_LETTER;
+
+    // 全文检索：英文前缀（建前缀索引）、中文逐字、例句分词
+    private static final String CREATE_TABLE_WORDS_FTS = "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_WORDS_FTS
+            + " USING fts4(" + COLUMN_ENGLISH + ", " + COLUMN_CHINESE + ", " + COLUMN_EXAMPLE
+            + ", tokenize=unicode61, prefix=\"2,3\")";
+    private static final String INSERT_INTO_FTS = " INSERT INTO " + TABLE_WORDS_FTS
+            + "(docid, " + COLUMN_ENGLISH + ", " + COLUMN_CHINESE + ", " + COLUMN_EXAMPLE + ") VALUES (NEW." + COLUMN_ID
+            + ", NEW." + COLUMN_ENGLISH + ", " + FUNCTION_CJK_SPLIT + "(NEW." + COLUMN_CHINESE + "), NEW." + COLUMN_EXAMPLE + ");";
+    private static final String DELETE_FROM_FTS = " DELETE FROM " + TABLE_WORDS_FTS + " WHERE docid = OLD." + COLUMN_ID + ";";
+    private static final String CREATE_TRIGGER_FTS_INSERT = "CREATE TRIGGER IF NOT EXISTS trg_words_fts_insert"
+            + " AFTER INSERT ON " + TABLE_WORDS + " BEGIN" + INSERT_INTO_FTS + " END";
+    private static final String CREATE_TRIGGER_FTS_DELETE = "CREATE TRIGGER IF NOT EXISTS trg_words_fts_delete"
+            + " AFTER DELETE ON " + TABLE_WORDS + " BEGIN" + DELETE_FROM_FTS + " END";
+    private static final String CREATE_TRIGGER_FTS_UPDATE = "CREATE TRIGGER IF NOT EXISTS trg_words_fts_update"
+            + " AFTER UPDATE OF " + COLUMN_ENGLISH + ", " + COLUMN_CHINESE + ", " + COLUMN_EXAMPLE + " ON " + TABLE_WORDS
+            + " BEGIN" + DELETE_FROM_FTS + INSERT_INTO_FTS + " END";
+
+    // 搜索第一段：英文以输入开头的单词，英文唯一索引上的范围查找，按字母顺序（完全匹配自然排在最前），不排序整个结果集
+    static final String SQL_SEARCH_PREFIX = "SELECT " + COLUMN_ID + ", " + COLUMN_ENGLISH + ", " + COLUMN_PHONETIC + ", "
+            + COLUMN_CHINESE + ", " + COLUMN_FAVORITE + ", " + COLUMN_FAMILIAR + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ENGLISH + " >= ? COLLATE NOCASE AND " + COLUMN_ENGLISH + " < ? COLLATE NOCASE"
+            + " ORDER BY " + COLUMN_ENGLISH + " COLLATE NOCASE LIMIT ? OFFSET ?";
+    static final String SQL_SEARCH_PREFIX_COUNT = "SELECT COUNT(*) FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ENGLISH + " >= ? COLLATE NOCASE AND " + COLUMN_ENGLISH + " < ? COLLATE NOCASE";
+    // 搜索第二段：其余全文匹配，最多取SEARCH_CANDIDATES个候选，按offsets()算出的相关度在内存中排序
+    static final String SQL_SEARCH_CANDIDATES = buildSearchCandidatesSql(TABLE_WORDS_FTS);
+    // 中文搜索只匹配中文释义列（FTS4不支持“列名:短语”写法，按列MATCH）
+    static final String SQL_SEARCH_CANDIDATES_CHINESE = buildSearchCandidatesSql(TABLE_WORDS_FTS + "." + COLUMN_CHINESE);
+    // 全文匹配候选的上限：匹配很多时（如常见的例句词）排序代价与匹配总数无关
+    private static final int SEARCH_CANDIDATES = 500;
+    // 相关度：命中英文、中文释义、例句的权重
+    private static final int[] SEARCH_COLUMN_WEIGHTS = {4, 2, 1};
+    // FTS前缀索引只建了2、3个字符的（prefix="2,3"），更短的前缀查询会遍历词典，交给第一段的英文索引
+    private static final int MIN_FTS_PREFIX_LENGTH = 2;
+
+    // 导出：按英文唯一索引的顺序分页读取全部单词（键集分页，每页都是索引范围查找）
+    static final String SQL_EXPORT_PAGE = "SELECT " + COLUMN_ID + ", " + COLUMN_ENGLISH + ", " + COLUMN_PHONETIC + ", "
+            + COLUMN_CHINESE + ", " + COLUMN_EXAMPLE + ", " + COLUMN_FAVORITE + ", " + COLUMN_FAMILIAR + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ENGLISH + " > ? COLLATE NOCASE ORDER BY " + COLUMN_ENGLISH + " COLLATE NOCASE LIMIT ?";
+    static final String SQL_WORD_COUNT = "SELECT IFNULL(SUM(" + COLUMN_TOTAL + "), 0) FROM " + TABLE_LETTER_STATS;
+
+    // 按ID顺序读取英文单词（主键范围扫描），用于构建和增量更新内存前缀索引
+    static final String SQL_HEADWORDS_AFTER = "SELECT " + COLUMN_ID + ", " + COLUMN_ENGLISH + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ID + " > ? ORDER BY " + COLUMN_ID;
+
+    // 英文唯一索引（不区分大小写），导入时由数据库完成去重
+    private static final String INDEX_WORDS_ENGLISH = "idx_words_english";
+    private static final String CREATE_INDEX_WORDS_ENGLISH = "CREATE UNIQUE INDEX IF NOT EXISTS "
+            + INDEX_WORDS_ENGLISH + " ON " + TABLE_WORDS + "(" + COLUMN_ENGLISH + " COLLATE NOCASE)";
+
+    // 列表页和统计查询使用的组合索引：按首字母（和熟悉度）过滤并按英文排序，避免全表扫描和临时排序
+    private static final String CREATE_INDEX_WORDS_LETTER_FAMILIAR = "CREATE INDEX IF NOT EXISTS "
+            + "idx_words_letter_familiar_english ON " + TABLE_WORDS + "("
+            + COLUMN_FIRST_LETTER + ", " + COLUMN_FAMILIAR + ", " + COLUMN_ENGLISH + ")";
+    private static final String CREATE_INDEX_WORDS_LETTER = "CREATE INDEX IF NOT EXISTS "
+            + "idx_words_letter_english ON " + TABLE_WORDS + "("
+            + COLUMN_FIRST_LETTER + ", " + COLUMN_ENGLISH + ")";
+    // 复习队列：按到期时间取前N个只读索引的前N项；新单词（NULL）在索引最前面，按ID顺序排列
+    private static final String CREATE_INDEX_WORDS_DUE = "CREATE INDEX IF NOT EXISTS "
+            + "idx_words_due ON " + TABLE_WORDS + "(" + COLUMN_DUE_AT + ")";
+
+    // 高频查询（测试中用EXPLAIN QUERY PLAN检查它们都命中索引）
+    static final String SQL_WORDS_BY_LETTER = "SELECT * FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_FIRST_LETTER + " = ?"
+            + " ORDER BY " + COLUMN_ENGLISH + " ASC";
+    static final String SQL_WORDS_BY_LETTER_AND_FAMILIARITY = "SELECT * FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_FIRST_LETTER + " = ? AND " + COLUMN_FAMILIAR + " = ?"
+            + " ORDER BY " + COLUMN_ENGLISH + " ASC";
+    // 列表分页：只取item_word.xml用到的列，按英文做键集分页（english > 上一页最后一个）
+    static final String SQL_WORD_PAGE = "SELECT "
+            + COLUMN_ID + ", " + COLUMN_ENGLISH + ", " + COLUMN_PHONETIC + ", " + COLUMN_CHINESE + ", "
+            + COLUMN_FAVORITE + ", " + COLUMN_FAMILIAR + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_FIRST_LETTER + " = ? AND " + COLUMN_FAMILIAR + " = ?"
+            + " AND " + COLUMN_ENGLISH + " > ?"
+            + " ORDER BY " + COLUMN_ENGLISH + " ASC LIMIT ?";
+    static final String SQL_LETTER_STATS = "SELECT * FROM " + TABLE_LETTER_STATS
+            + " WHERE " + COLUMN_FIRST_LETTER + " = ?";
+    static final String SQL_ALL_LETTER_STATS = "SELECT * FROM " + TABLE_LETTER_STATS
+            + " WHERE " + COLUMN_TOTAL + " > 0";
+    static final String SQL_WORD_EXISTS = "SELECT " + COLUMN_ID + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ENGLISH + " = ? COLLATE NOCASE";
+    static final String SQL_DUE_WORDS = "SELECT " + COLUMN_ID + ", " + COLUMN_DUE_AT + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_DUE_AT + " <= ? ORDER BY " + COLUMN_DUE_AT + " LIMIT ?";
+    static final String SQL_NEW_WORDS = "SELECT " + COLUMN_ID + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_DUE_AT + " IS NULL ORDER BY " + COLUMN_ID + " LIMIT ?";
+    static final String SQL_DUE_COUNT = "SELECT COUNT(*) FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_DUE_AT + " <= ?";
+    static final String SQL_REVIEW_STATE = "SELECT " + COLUMN_EASE + ", " + COLUMN_INTERVAL + ", "
+            + COLUMN_DUE_AT + ", " + COLUMN_LAPSES + ", " + COLUMN_REPS + " FROM " + TABLE_WORDS
+            + " WHERE " + COLUMN_ID + " = ?";
+    static final String SQL_UPDATE_REVIEW_STATE = "UPDATE " + TABLE_WORDS + " SET "
+            + COLUMN_EASE + " = ?, "
+            + COLUMN_INTERVAL + " = ?, "
+            + COLUMN_DUE_AT + " = ?, "
+            + COLUMN_LAPSES + " = ?, "
+            + COLUMN_REPS + " = ?, "
+            + COLUMN_FAMILIAR + " = ?"
+            + " WHERE " + COLUMN_ID + " = ?";
+
+    private static final String CREATE_TABLE_IMPORT_CHECKPOINTS = "CREATE TABLE IF NOT EXISTS " + TABLE_IMPORT_CHECKPOINTS + "("
+            + COLUMN_SOURCE + " TEXT NOT NULL, "
+            + COLUMN_CONTENT_HASH + " TEXT NOT NULL, "
+            + COLUMN_MERGE_POLICY + " TEXT NOT NULL, "
+            + COLUMN_ROW_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_INSERTED + " INTEGER NOT NULL, "
+            + COLUMN_UPDATED + " INTEGER NOT NULL, "
+            + COLUMN_SKIPPED + " INTEGER NOT NULL, "
+            + COLUMN_UPDATED_AT + " INTEGER NOT NULL, "
+            + "PRIMARY KEY (" + COLUMN_SOURCE + ", " + COLUMN_CONTENT_HASH + "))";
+    static final String SQL_IMPORT_CHECKPOINT = "SELECT " + COLUMN_ROW_COUNT + ", " + COLUMN_INSERTED + ", "
+            + COLUMN_UPDATED + ", " + COLUMN_SKIPPED + " FROM " + TABLE_IMPORT_CHECKPOINTS
+            + " WHERE " + COLUMN_SOURCE + " = ? AND " + COLUMN_CONTENT_HASH + " = ? AND " + COLUMN_MERGE_POLICY + " = ?";
+
+    // 复习记录只按自增ID顺序追加和删除，不建其他索引，追加时不需要维护索引
+    private static final String CREATE_TABLE_REVIEW_LOG = "CREATE TABLE IF NOT EXISTS " + TABLE_REVIEW_LOG + "("
+            + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + COLUMN_WORD_ID + " INTEGER NOT NULL, "
+            + COLUMN_REVIEWED_AT + " INTEGER NOT NULL, "
+            + COLUMN_GRADE + " INTEGER NOT NULL, "
+            + COLUMN_RESPONSE_MS + " INTEGER NOT NULL)";
+    private static final String CREATE_TABLE_REVIEW_STATS = "CREATE TABLE IF NOT EXISTS " + TABLE_REVIEW_STATS + "("
+            + COLUMN_WORD_ID + " INTEGER PRIMARY KEY, "
+            + COLUMN_REVIEW_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_AGAIN_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_HARD_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_GOOD_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_EASY_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_TOTAL_RESPONSE_MS + " INTEGER NOT NULL, "
+            + COLUMN_FIRST_REVIEWED_AT + " INTEGER NOT NULL, "
+            + COLUMN_LAST_REVIEWED_AT + " INTEGER NOT NULL)";
+    static final String SQL_INSERT_REVIEW_LOG = "INSERT INTO " + TABLE_REVIEW_LOG + " ("
+            + COLUMN_WORD_ID + ", " + COLUMN_REVIEWED_AT + ", " + COLUMN_GRADE + ", " + COLUMN_RESPONSE_MS
+            + ") VALUES (?, ?, ?, ?)";
+    // 汇总的范围用ID上界表示，汇总和删除的是同一批记录
+    static final String SQL_REVIEW_LOG_COMPACT_BOUND = "SELECT MAX(" + COLUMN_ID + ") FROM " + TABLE_REVIEW_LOG
+            + " WHERE " + COLUMN_REVIEWED_AT + " < ?";
+    // 评分1~4分别为忘记、困难、良好、简单（与ReviewScheduler一致）
+    static final String SQL_COMPACT_REVIEW_LOG = "INSERT INTO " + TABLE_REVIEW_STATS + " ("
+            + COLUMN_WORD_ID + ", " + COLUMN_REVIEW_COUNT + ", "
+            + COLUMN_AGAIN_COUNT + ", " + COLUMN_HARD_COUNT + ", " + COLUMN_GOOD_COUNT + ", " + COLUMN_EASY_COUNT + ", "
+            + COLUMN_TOTAL_RESPONSE_MS + ", " + COLUMN_FIRST_REVIEWED_AT + ", " + COLUMN_LAST_REVIEWED_AT + ")"
+            + " SELECT " + COLUMN_WORD_ID + ", COUNT(*), "
+            + "SUM(" + COLUMN_GRADE + " = 1), SUM(" + COLUMN_GRADE + " = 2), SUM(" + COLUMN_GRADE + " = 3), SUM(" + COLUMN_GRADE + " = 4), "
+            + "SUM(" + COLUMN_RESPONSE_MS + "), MIN(" + COLUMN_REVIEWED_AT + "), MAX(" + COLUMN_REVIEWED_AT + ")"
+            + " FROM " + TABLE_REVIEW_LOG + " WHERE " + COLUMN_ID + " <= ? GROUP BY " + COLUMN_WORD_ID
+            + " ON CONFLICT(" + COLUMN_WORD_ID + ") DO UPDATE SET "
+            + COLUMN_REVIEW_COUNT + " = " + COLUMN_REVIEW_COUNT + " + excluded." + COLUMN_REVIEW_COUNT + ", "
+            + COLUMN_AGAIN_COUNT + " = " + COLUMN_AGAIN_COUNT + " + excluded." + COLUMN_AGAIN_COUNT + ", "
+            + COLUMN_HARD_COUNT + " = " + COLUMN_HARD_COUNT + " + excluded." + COLUMN_HARD_COUNT + ", "
+            + COLUMN_GOOD_COUNT + " = " + COLUMN_GOOD_COUNT + " + excluded." + COLUMN_GOOD_COUNT + ", "
+            + COLUMN_EASY_COUNT + " = " + COLUMN_EASY_COUNT + " + excluded." + COLUMN_EASY_COUNT + ", "
+            + COLUMN_TOTAL_RESPONSE_MS + " = " + COLUMN_TOTAL_RESPONSE_MS + " + excluded." + COLUMN_TOTAL_RESPONSE_MS + ", "
+            + COLUMN_FIRST_REVIEWED_AT + " = MIN(" + COLUMN_FIRST_REVIEWED_AT + ", excluded." + COLUMN_FIRST_REVIEWED_AT + "), "
+            + COLUMN_LAST_REVIEWED_AT + " = MAX(" + COLUMN_LAST_REVIEWED_AT + ", excluded." + COLUMN_LAST_REVIEWED_AT + ")";
+
+    // 批量导入时每个事务写入的单词数
+    private static final int BULK_INSERT_CHUNK_SIZE = 500;
+
+    private static volatile WordDbHelper instance;
+
+    /**
+     * 获取进程内共享的数据库帮助类：整个应用只持有一个连接池，页面不要自行关闭它，
+     * 这样页缓存和预编译语句缓存可以跨页面复用
+     */
+    public static WordDbHelper getInstance(Context context) {
+        if (instance == null) {
+            synchronized (WordDbHelper.class) {
+                if (instance == null) {
+                    instance = new WordDbHelper(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
 
-    public WordDbHelper(Context context) {
+    private WordDbHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // 预写日志：读连接从连接池获取，读不会被写阻塞
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // 全文检索触发器用到的函数，需要在建表和升级之前注册到每个连接
+        db.setCustomScalarFunction(FUNCTION_CJK_SPLIT, WordDbHelper::splitCjk);
+    }
+
+    /**
+     * 在每个汉字两侧加空格，其余字符原样保留
+     */
+    static String splitCjk(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(text.length() * 2);
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                builder.append(' ').appendCodePoint(codePoint).append(' ');
+            } else {
+                builder.appendCodePoint(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return builder.toString();
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         // 创建单词表
         db.execSQL(CREATE_TABLE_WORDS);
+        db.execSQL(CREATE_INDEX_WORDS_ENGLISH);
+        db.execSQL(CREATE_INDEX_WORDS_LETTER_FAMILIAR);
+        db.execSQL(CREATE_INDEX_WORDS_LETTER);
+        createLetterStats(db);
+        createWordsFts(db);
+        db.execSQL(CREATE_TABLE_IMPORT_CHECKPOINTS);
+        createReviewSchedule(db);
+        db.execSQL(CREATE_TABLE_REVIEW_LOG);
+        db.execSQL(CREATE_TABLE_REVIEW_STATS);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // 升级数据库时删除旧表并创建新表
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_WORDS);
-        onCreate(db);
+        // 按版本逐级升级，保留已有数据
+        if (oldVersion < 2) {
+            upgradeToVersion2(db);
+        }
+        if (oldVersion < 3) {
+            upgradeToVersion3(db);
+        }
+        if (oldVersion < 4) {
+            createLetterStats(db);
+            rebuildLetterStats(db);
+        }
+        if (oldVersion < 5) {
+            createWordsFts(db);
+            db.execSQL("INSERT INTO " + TABLE_WORDS_FTS + "(docid, " + COLUMN_ENGLISH + ", " + COLUMN_CHINESE + ", " + COLUMN_EXAMPLE + ")"
+                    + " SELECT " + COLUMN_ID + ", " + COLUMN_ENGLISH + ", " + FUNCTION_CJK_SPLIT + "(" + COLUMN_CHINESE + "), " + COLUMN_EXAMPLE
+                    + " FROM " + TABLE_WORDS);
+        }
+        if (oldVersion < 6) {
+            db.execSQL(CREATE_TABLE_IMPORT_CHECKPOINTS);
+        }
+        if (oldVersion < 7) {
+            upgradeToVersion7(db);
+        }
+        if (oldVersion < 8) {
+            db.execSQL(CREATE_TABLE_REVIEW_LOG);
+            db.execSQL(CREATE_TABLE_REVIEW_STATS);
+        }
+    }
+
+    /**
+     * 版本2：合并大小写不同的重复单词（保留最早的一条，熟悉/收藏状态取并集），然后建立英文唯一索引
+     */
+    private void upgradeToVersion2(SQLiteDatabase db) {
+        String keepIds = "SELECT MIN(" + COLUMN_ID + ") FROM " + TABLE_WORDS
+                + " GROUP BY " + COLUMN_ENGLISH + " COLLATE NOCASE";
+        db.execSQL("UPDATE " + TABLE_WORDS + " SET " + COLUMN_FAMILIAR + " = 1 WHERE " + COLUMN_ID + " IN ("
+                + keepIds + " HAVING MAX(" + COLUMN_FAMILIAR + ") = 1)");
+        db.execSQL("UPDATE " + TABLE_WORDS + " SET " + COLUMN_FAVORITE + " = 1 WHERE " + COLUMN_ID + " IN ("
+                + keepIds + " HAVING MAX(" + COLUMN_FAVORITE + ") = 1)");
+        db.execSQL("DELETE FROM " + TABLE_WORDS + " WHERE " + COLUMN_ID + " NOT IN (" + keepIds + ")");
+        db.execSQL(CREATE_INDEX_WORDS_ENGLISH);
+    }
+
+    /**
+     * 版本3：为首字母/熟悉度列表查询和统计查询建立组合索引
+     */
+    private void upgradeToVersion3(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_WORDS_LETTER_FAMILIAR);
+        db.execSQL(CREATE_INDEX_WORDS_LETTER);
+    }
+
+    /**
+     * 版本7：增加间隔重复调度列。已熟悉的单词按已掌握处理，下次复习时间分散在之后的21天内，
+     * 避免升级后同一天全部到期；未熟悉的单词作为新单词
+     */
+    private void upgradeToVersion7(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_WORDS + " ADD COLUMN " + COLUMN_EASE + " REAL NOT NULL DEFAULT " + ReviewState.INITIAL_EASE);
+        db.execSQL("ALTER TABLE " + TABLE_WORDS + " ADD COLUMN " + COLUMN_INTERVAL + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_WORDS + " ADD COLUMN " + COLUMN_DUE_AT + " INTEGER");
+        db.execSQL("ALTER TABLE " + TABLE_WORDS + " ADD COLUMN " + COLUMN_LAPSES + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_WORDS + " ADD COLUMN " + COLUMN_REPS + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("UPDATE " + TABLE_WORDS + " SET "
+                + COLUMN_INTERVAL + " = " + FAMILIAR_INTERVAL_DAYS + ", "
+                + COLUMN_REPS + " = 1, "
+                + COLUMN_DUE_AT + " = " + SQL_NOW_MILLIS + " + (" + COLUMN_ID + " % " + FAMILIAR_INTERVAL_DAYS + " + 1) * " + DAY_MILLIS
+                + " WHERE " + COLUMN_FAMILIAR + " = 1");
+        createReviewSchedule(db);
+    }
+
+    private void createReviewSchedule(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_WORDS_DUE);
+        db.execSQL(CREATE_TRIGGER_SRS_INSERT);
+        db.execSQL(CREATE_TRIGGER_SRS_FAMILIAR);
+    }
+
+    /**
+     * 版本4：创建字母统计表及维护它的触发器
+     */
+    private void createLetterStats(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_LETTER_STATS);
+        db.execSQL(CREATE_TRIGGER_STATS_INSERT);
+        db.execSQL(CREATE_TRIGGER_STATS_DELETE);
+        db.execSQL(CREATE_TRIGGER_STATS_UPDATE);
+    }
+
+    private static String buildSearchCandidatesSql(String matchTarget) {
+        return "SELECT " + TABLE_WORDS_FTS + ".docid, w." + COLUMN_ENGLISH + ", offsets(" + TABLE_WORDS_FTS + ")"
+                + " FROM " + TABLE_WORDS_FTS + " JOIN " + TABLE_WORDS + " w ON w." + COLUMN_ID + " = " + TABLE_WORDS_FTS + ".docid"
+                + " WHERE " + matchTarget + " MATCH ? LIMIT " + SEARCH_CANDIDATES;
+    }
+
+    /**
+     * 版本5：创建全文检索表及同步触发器
+     */
+    private void createWordsFts(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_WORDS_FTS);
+        db.execSQL(CREATE_TRIGGER_FTS_INSERT);
+        db.execSQL(CREATE_TRIGGER_FTS_DELETE);
+        db.execSQL(CREATE_TRIGGER_FTS_UPDATE);
+    }
+
+    /**
+     * 从单词表重新计算字母统计表（调用方负责事务）
+     */
+    private void rebuildLetterStats(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_LETTER_STATS);
+        db.execSQL("INSERT INTO " + TABLE_LETTER_STATS + " ("
+                + COLUMN_FIRST_LETTER + ", " + COLUMN_TOTAL + ", " + COLUMN_FAMILIAR_COUNT + ", " + COLUMN_FAVORITE_COUNT + ") "
+                + SQL_AGGREGATE_LETTER_STATS);
     }
 
     /**
@@ -66,10 +508,7 @@ public class WordDbHelper extends SQLiteOpenHelper {
         ContentValues values = new ContentValues();
         
         // 计算首字母（转为大写）
-        String firstLetter = "";
-        if (word.getEnglish() != null && !word.getEnglish().isEmpty()) {
-            firstLetter = word.getEnglish().substring(0, 1).toUpperCase();
-        }
+        String firstLetter = getFirstLetter(word.getEnglish());
         
         values.put(COLUMN_ENGLISH, word.getEnglish());
         values.put(COLUMN_PHONETIC, word.getPhonetic());
@@ -79,28 +518,337 @@ public class WordDbHelper extends SQLiteOpenHelper {
         values.put(COLUMN_FAMILIAR, word.isFamiliar() ? 1 : 0);
         values.put(COLUMN_FIRST_LETTER, firstLetter);
 
-        // 插入数据并获取ID
-        long id = db.insert(TABLE_WORDS, null, values);
-        db.close();
+        // 插入数据并获取ID（已存在时返回-1）
+        long id = db.insertWithOnConflict(TABLE_WORDS, null, values, SQLiteDatabase.CONFLICT_IGNORE);
         return id;
     }
 
+    /**
+     * 批量添加单词：在分块事务中使用预编译语句写入，已存在的单词按合并策略处理
+     */
+    public ImportResult insertWords(Iterator<Word> words, MergePolicy policy) {
+        BulkInserter inserter = beginBulkInsert(policy);
+        try {
+            while (words.hasNext()) {
+                inserter.insert(words.next());
+            }
+            return inserter.finish();
+        } finally {
+            inserter.abort();
+        }
+    }
+
+    /**
+     * 开始一次批量导入，调用方逐个调用insert，最后调用finish提交；
+     * 出错时调用abort回滚未提交的分块（已提交的分块会保留）。
+     * 导入期间占用写连接，其他页面的读取不受影响
+     */
+    public BulkInserter beginBulkInsert(MergePolicy policy) {
+        return new BulkInserter(this.getWritableDatabase(), policy, null, null);
+    }
+
+    /**
+     * 开始一次可以中断后继续的批量导入：每个分块与该文件的检查点在同一个事务中提交，
+     * 如果同一来源、同一内容、同一合并策略有未完成的导入，从它已提交的行之后继续
+     * （getResumeRowCount返回要跳过的行数，统计数从上次累计）。finish时删除检查点
+     */
+    public BulkInserter beginBulkInsert(MergePolicy policy, String source, String contentHash) {
+        return new BulkInserter(this.getWritableDatabase(), policy, source, contentHash);
+    }
+
+    /**
+     * 计算首字母（转为大写）
+     */
+    public static String getFirstLetter(String english) {
+        if (english == null || english.isEmpty()) {
+            return "";
+        }
+        return english.substring(0, 1).toUpperCase();
+    }
+
+    /**
+     * 批量导入会话：同一个连接、同一组预编译语句，每BULK_INSERT_CHUNK_SIZE行提交一次事务。
+     * 去重由英文唯一索引完成（INSERT OR IGNORE），被忽略的行再按合并策略决定是否更新
+     */
+    public static class BulkInserter {
+        private final SQLiteDatabase db;
+        private final MergePolicy policy;
+        private final SQLiteStatement insertStatement;
+        private final SQLiteStatement updateStatement;
+        // 检查点（没有来源时为null）
+        private final String source;
+        private final String contentHash;
+        private final SQLiteStatement checkpointStatement;
+        private final ImportResult result = new ImportResult();
+        // 已处理的行数（含上次导入已提交的行）、开始时从检查点恢复的行数
+        private int rowCount;
+        private final int resumeRowCount;
+        private int pendingInChunk;
+        private boolean closed;
+
+        private BulkInserter(SQLiteDatabase db, MergePolicy policy, String source, String contentHash) {
+            this.db = db;
+            this.policy = policy;
+            this.source = source;
+            this.contentHash = contentHash;
+            this.insertStatement = db.compileStatement(
+                    "INSERT OR IGNORE INTO " + TABLE_WORDS + " ("
+                            + COLUMN_ENGLISH + ", "
+                            + COLUMN_PHONETIC + ", "
+                            + COLUMN_CHINESE + ", "
+                            + COLUMN_EXAMPLE + ", "
+                            + COLUMN_FAVORITE + ", "
+                            + COLUMN_FAMILIAR + ", "
+                            + COLUMN_FIRST_LETTER + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+
+            switch (policy) {
+                case OVERWRITE:
+                    this.updateStatement = db.compileStatement(
+                            "UPDATE " + TABLE_WORDS + " SET "
+                                    + COLUMN_PHONETIC + " = ?, "
+                                    + COLUMN_CHINESE + " = ?, "
+                                    + COLUMN_EXAMPLE + " = ?, "
+                                    + COLUMN_FAMILIAR + " = ?"
+                                    + " WHERE " + COLUMN_ENGLISH + " = ? COLLATE NOCASE");
+                    break;
+                case OVERWRITE_KEEP_FAMILIARITY:
+                    this.updateStatement = db.compileStatement(
+                            "UPDATE " + TABLE_WORDS + " SET "
+                                    + COLUMN_PHONETIC + " = ?, "
+                                    + COLUMN_CHINESE + " = ?, "
+                                    + COLUMN_EXAMPLE + " = ?"
+                                    + " WHERE " + COLUMN_ENGLISH + " = ? COLLATE NOCASE");
+                    break;
+                default:
+                    this.updateStatement = null;
+                    break;
+            }
+
+            if (source != null) {
+                this.checkpointStatement = db.compileStatement(
+                        "INSERT OR REPLACE INTO " + TABLE_IMPORT_CHECKPOINTS + " ("
+                                + COLUMN_SOURCE + ", "
+                                + COLUMN_CONTENT_HASH + ", "
+                                + COLUMN_MERGE_POLICY + ", "
+                                + COLUMN_ROW_COUNT + ", "
+                                + COLUMN_INSERTED + ", "
+                                + COLUMN_UPDATED + ", "
+                                + COLUMN_SKIPPED + ", "
+                                + COLUMN_UPDATED_AT + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+                restoreCheckpoint();
+            } else {
+                this.checkpointStatement = null;
+            }
+            this.resumeRowCount = rowCount;
+        }
+
+        // 读取未完成的导入进度（合并策略不同时重新开始，提交第一个分块时覆盖旧检查点）
+        private void restoreCheckpoint() {
+            Cursor cursor = db.rawQuery(SQL_IMPORT_CHECKPOINT, new String[]{source, contentHash, policy.name()});
+            if (cursor.moveToFirst()) {
+                rowCount = cursor.getInt(0);
+                result.setInsertedCount(cursor.getInt(1));
+                result.setUpdatedCount(cursor.getInt(2));
+                result.setSkippedCount(cursor.getInt(3));
+            }
+            cursor.close();
+        }
+
+        /**
+         * 从检查点恢复时要跳过的行数，没有检查点时为0
+         */
+        public int getResumeRowCount() {
+            return resumeRowCount;
+        }
+
+        /**
+         * 已处理的行数（含从检查点恢复的行）
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * 当前统计的副本，用于报告进度
+         */
+        public ImportResult getResult() {
+            ImportResult copy = new ImportResult(result.getInsertedCount(), result.getSkippedCount());
+            copy.setUpdatedCount(result.getUpdatedCount());
+            return copy;
+        }
+
+        /**
+         * 写入一个单词，已存在则计入跳过数
+         */
+        public void insert(Word word) {
+            insert(word, getFirstLetter(word.getEnglish()));
+        }
+
+        /**
+         * 写入一个首字母已计算好的单词，已存在时按合并策略处理
+         */
+        public void insert(Word word, String firstLetter) {
+            beginChunkIfNeeded();
+
+            insertStatement.bindString(1, word.getEnglish());
+            bindNullableString(insertStatement, 2, word.getPhonetic());
+            bindNullableString(insertStatement, 3, word.getChinese());
+            bindNullableString(insertStatement, 4, word.getExample());
+            insertStatement.bindLong(5, word.isFavorite() ? 1 : 0);
+            insertStatement.bindLong(6, word.isFamiliar() ? 1 : 0);
+            insertStatement.bindString(7, firstLetter);
+
+            if (insertStatement.executeInsert() != -1) {
+                result.setInsertedCount(result.getInsertedCount() + 1);
+            } else {
+                countMerge(word);
+            }
+            endRowInChunk();
+        }
+
+        /**
+         * 写入一个调用方已知存在的单词：不再尝试插入，直接按合并策略更新
+         */
+        public void merge(Word word) {
+            beginChunkIfNeeded();
+            countMerge(word);
+            endRowInChunk();
+        }
+
+        /**
+         * 跳过一行（调用方已判断无需写入），只计入跳过数和检查点的行数
+         */
+        public void skip() {
+            beginChunkIfNeeded();
+            result.setSkippedCount(result.getSkippedCount() + 1);
+            endRowInChunk();
+        }
+
+        /**
+         * 提交当前分块（连同检查点）但不结束导入，取消导入前调用以保留已处理的行
+         */
+        public void commit() {
+            if (pendingInChunk > 0) {
+                commitChunk();
+            }
+        }
+
+        /**
+         * 提交剩余的分块并结束导入
+         */
+        public ImportResult finish() {
+            if (checkpointStatement != null) {
+                // 导入完成，检查点与最后一个分块一起删除
+                beginChunkIfNeeded();
+                db.delete(TABLE_IMPORT_CHECKPOINTS, COLUMN_SOURCE + " = ? AND " + COLUMN_CONTENT_HASH + " = ?",
+                        new String[]{source, contentHash});
+                db.setTransactionSuccessful();
+                db.endTransaction();
+                pendingInChunk = 0;
+            } else if (pendingInChunk > 0) {
+                commitChunk();
+            }
+            close();
+            return result;
+        }
+
+        /**
+         * 放弃当前未提交的分块并结束导入，finish之后调用无副作用
+         */
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            if (pendingInChunk > 0) {
+                db.endTransaction();
+                pendingInChunk = 0;
+            }
+            close();
+        }
+
+        private void beginChunkIfNeeded() {
+            if (pendingInChunk == 0) {
+                db.beginTransaction();
+            }
+        }
+
+        private void endRowInChunk() {
+            rowCount++;
+            if (++pendingInChunk >= BULK_INSERT_CHUNK_SIZE) {
+                commitChunk();
+            }
+        }
+
+        private void countMerge(Word word) {
+            if (updateStatement != null && update(word) > 0) {
+                result.setUpdatedCount(result.getUpdatedCount() + 1);
+            } else {
+                result.setSkippedCount(result.getSkippedCount() + 1);
+            }
+        }
+
+        /**
+         * 按合并策略更新已存在的单词
+         */
+        private int update(Word word) {
+            bindNullableString(updateStatement, 1, word.getPhonetic());
+            bindNullableString(updateStatement, 2, word.getChinese());
+            bindNullableString(updateStatement, 3, word.getExample());
+            if (policy == MergePolicy.OVERWRITE) {
+                updateStatement.bindLong(4, word.isFamiliar() ? 1 : 0);
+                updateStatement.bindString(5, word.getEnglish());
+            } else {
+                updateStatement.bindString(4, word.getEnglish());
+            }
+            return updateStatement.executeUpdateDelete();
+        }
+
+        private void commitChunk() {
+            if (checkpointStatement != null) {
+                checkpointStatement.bindString(1, source);
+                checkpointStatement.bindString(2, contentHash);
+                checkpointStatement.bindString(3, policy.name());
+                checkpointStatement.bindLong(4, rowCount);
+                checkpointStatement.bindLong(5, result.getInsertedCount());
+                checkpointStatement.bindLong(6, result.getUpdatedCount());
+                checkpointStatement.bindLong(7, result.getSkippedCount());
+                checkpointStatement.bindLong(8, System.currentTimeMillis());
+                checkpointStatement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+            db.endTransaction();
+            pendingInChunk = 0;
+        }
+
+        private void close() {
+            closed = true;
+            insertStatement.close();
+            if (updateStatement != null) {
+                updateStatement.close();
+            }
+            if (checkpointStatement != null) {
+                checkpointStatement.close();
+            }
+        }
+
+        private static void bindNullableString(SQLiteStatement statement, int index, String value) {
+            if (value == null) {
+                statement.bindNull(index);
+            } else {
+                statement.bindString(index, value);
+            }
+        }
+    }
+
     /**
      * 检查单词是否已存在
      */
     public boolean isWordExists(String english) {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(
-                TABLE_WORDS,
-                new String[]{COLUMN_ID},
-                COLUMN_ENGLISH + " = ?",
-                new String[]{english},
-                null, null, null
-        );
+        Cursor cursor = db.rawQuery(SQL_WORD_EXISTS, new String[]{english});
         
         boolean exists = cursor.getCount() > 0;
         cursor.close();
-        db.close();
         return exists;
     }
 
@@ -111,32 +859,15 @@ public class WordDbHelper extends SQLiteOpenHelper {
         List<Word> words = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         
-        Cursor cursor = db.query(
-                TABLE_WORDS,
-                null,
-                COLUMN_FIRST_LETTER + " = ?",
-                new String[]{letter.toUpperCase()},
-                null, null,
-                COLUMN_ENGLISH + " ASC" // 按字母顺序排序
-        );
+        // 按字母顺序排序
+        Cursor cursor = db.rawQuery(SQL_WORDS_BY_LETTER, new String[]{letter.toUpperCase()});
 
-        if (cursor.moveToFirst()) {
-            do {
-                Word word = new Word();
-                word.setId(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)));
-                word.setEnglish(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ENGLISH)));
-                word.setPhonetic(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHONETIC)));
-                word.setChinese(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CHINESE)));
-                word.setExample(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_EXAMPLE)));
-                word.setFavorite(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAVORITE)) == 1);
-                word.setFamiliar(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAMILIAR)) == 1);
-                
-                words.add(word);
-            } while (cursor.moveToNext());
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            words.add(mapper.map(cursor));
         }
         
         cursor.close();
-        db.close();
         return words;
     }
 
@@ -155,7 +886,6 @@ public class WordDbHelper extends SQLiteOpenHelper {
                 new String[]{String.valueOf(wordId)}
         );
         
-        db.close();
         return rowsAffected;
     }
 
@@ -174,41 +904,109 @@ public class WordDbHelper extends SQLiteOpenHelper {
                 new String[]{String.valueOf(wordId)}
         );
         
-        db.close();
         return rowsAffected;
     }
 
+    /**
+     * 在一个事务中批量更新多个单词的熟悉度和收藏状态（键为单词ID）
+     */
+    public void updateWordStates(Map<Long, Boolean> familiarChanges, Map<Long, Boolean> favoriteChanges) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement familiarStatement = db.compileStatement("UPDATE " + TABLE_WORDS
+                + " SET " + COLUMN_FAMILIAR + " = ? WHERE " + COLUMN_ID + " = ?");
+        SQLiteStatement favoriteStatement = db.compileStatement("UPDATE " + TABLE_WORDS
+                + " SET " + COLUMN_FAVORITE + " = ? WHERE " + COLUMN_ID + " = ?");
+        db.beginTransaction();
+        try {
+            for (Map.Entry<Long, Boolean> entry : familiarChanges.entrySet()) {
+                familiarStatement.bindLong(1, entry.getValue() ? 1 : 0);
+                familiarStatement.bindLong(2, entry.getKey());
+                familiarStatement.executeUpdateDelete();
+            }
+            for (Map.Entry<Long, Boolean> entry : favoriteChanges.entrySet()) {
+                favoriteStatement.bindLong(1, entry.getValue() ? 1 : 0);
+                favoriteStatement.bindLong(2, entry.getKey());
+                favoriteStatement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            familiarStatement.close();
+            favoriteStatement.close();
+        }
+    }
+
     /**
      * 获取字母统计信息（用于主页字母卡片）
      */
     public LetterStats getLetterStats(String letter) {
         LetterStats stats = new LetterStats();
         SQLiteDatabase db = this.getReadableDatabase();
-        String targetLetter = letter.toUpperCase();
-        
-        // 查询总数
-        String totalSql = "SELECT COUNT(*) AS total FROM " + TABLE_WORDS + 
-                         " WHERE " + COLUMN_FIRST_LETTER + " = ?";
-        Cursor totalCursor = db.rawQuery(totalSql, new String[]{targetLetter});
-        if (totalCursor.moveToFirst()) {
-            stats.setTotalCount(totalCursor.getInt(totalCursor.getColumnIndexOrThrow("total")));
-        }
-        totalCursor.close();
-        
-        // 查询已熟悉数量
-        String familiarSql = "SELECT COUNT(*) AS familiar FROM " + TABLE_WORDS + 
-                            " WHERE " + COLUMN_FIRST_LETTER + " = ?" + 
-                            " AND " + COLUMN_FAMILIAR + " = 1";
-        Cursor familiarCursor = db.rawQuery(familiarSql, new String[]{targetLetter});
-        if (familiarCursor.moveToFirst()) {
-            stats.setFamiliarCount(familiarCursor.getInt(familiarCursor.getColumnIndexOrThrow("familiar")));
-        }
-        familiarCursor.close();
-        db.close();
-        
+
+        // 直接读取统计表中该字母的一行
+        Cursor cursor = db.rawQuery(SQL_LETTER_STATS, new String[]{letter.toUpperCase()});
+        if (cursor.moveToFirst()) {
+            stats = readLetterStats(cursor);
+        }
+        cursor.close();
+
+        return stats;
+    }
+
+    /**
+     * 一次分组查询获取所有字母的统计信息，键为大写首字母（没有单词的字母不在结果中）
+     */
+    public Map<String, LetterStats> getAllLetterStats() {
+        Map<String, LetterStats> statsMap = new HashMap<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(SQL_ALL_LETTER_STATS, null);
+        int letterIndex = cursor.getColumnIndexOrThrow(COLUMN_FIRST_LETTER);
+        while (cursor.moveToNext()) {
+            statsMap.put(cursor.getString(letterIndex), readLetterStats(cursor));
+        }
+
+        cursor.close();
+        return statsMap;
+    }
+
+    private static LetterStats readLetterStats(Cursor cursor) {
+        LetterStats stats = new LetterStats(
+                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_TOTAL)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAMILIAR_COUNT)));
+        stats.setFavoriteCount(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAVORITE_COUNT)));
         return stats;
     }
 
+    /**
+     * 检查字母统计表与单词表是否一致
+     */
+    public boolean verifyLetterStats() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        String storedStats = "SELECT " + COLUMN_FIRST_LETTER + ", " + COLUMN_TOTAL + ", "
+                + COLUMN_FAMILIAR_COUNT + ", " + COLUMN_FAVORITE_COUNT
+                + " FROM " + TABLE_LETTER_STATS + " WHERE " + COLUMN_TOTAL + " != 0";
+        // 两个方向做差集，任一方向有多余的行都说明计数有偏差
+        String sql = "SELECT (SELECT COUNT(*) FROM (" + SQL_AGGREGATE_LETTER_STATS + " EXCEPT " + storedStats + "))"
+                + " + (SELECT COUNT(*) FROM (" + storedStats + " EXCEPT " + SQL_AGGREGATE_LETTER_STATS + "))";
+        long mismatches = DatabaseUtils.longForQuery(db, sql, null);
+        return mismatches == 0;
+    }
+
+    /**
+     * 从单词表重新计算字母统计表，用于修复计数偏差
+     */
+    public void rebuildLetterStats() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            rebuildLetterStats(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     /**
      * 根据ID获取单词详情
      */
@@ -225,26 +1023,28 @@ public class WordDbHelper extends SQLiteOpenHelper {
         );
 
         if (cursor.moveToFirst()) {
-            word = new Word();
-            word.setId(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)));
-            word.setEnglish(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ENGLISH)));
-            word.setPhonetic(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHONETIC)));
-            word.setChinese(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CHINESE)));
-            word.setExample(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_EXAMPLE)));
-            word.setFavorite(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAVORITE)) == 1);
-            word.setFamiliar(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAMILIAR)) == 1);
+            word = new WordRowMapper(cursor).map(cursor);
         }
         
         cursor.close();
-        db.close();
         return word;
     }
 
     //清空所有单词
     public void clearAllData() {
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_WORDS, null, null);
-        db.close();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_WORDS, null, null);
+            db.delete(TABLE_LETTER_STATS, null, null);
+            // 单词已清空，未完成的导入不能再从中间继续
+            db.delete(TABLE_IMPORT_CHECKPOINTS, null, null);
+            db.delete(TABLE_REVIEW_LOG, null, null);
+            db.delete(TABLE_REVIEW_STATS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
     }
 
 
@@ -255,34 +1055,464 @@ public class WordDbHelper extends SQLiteOpenHelper {
         List<Word> words = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor cursor = db.query(
-                TABLE_WORDS,
-                null,
-                COLUMN_FIRST_LETTER + " = ? AND " + COLUMN_FAMILIAR + " = ?",
-                new String[]{letter.toUpperCase(), isFamiliar ? "1" : "0"},
-                null, null,
-                COLUMN_ENGLISH + " ASC" // 按字母顺序排序
-        );
+        // 按字母顺序排序
+        Cursor cursor = db.rawQuery(SQL_WORDS_BY_LETTER_AND_FAMILIARITY,
+                new String[]{letter.toUpperCase(), isFamiliar ? "1" : "0"});
 
-        if (cursor.moveToFirst()) {
-            do {
-                Word word = new Word();
-                word.setId(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)));
-                word.setEnglish(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ENGLISH)));
-                word.setPhonetic(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHONETIC)));
-                word.setChinese(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CHINESE)));
-                word.setExample(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_EXAMPLE)));
-                word.setFavorite(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAVORITE)) == 1);
-                word.setFamiliar(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_FAMILIAR)) == 1);
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            words.add(mapper.map(cursor));
+        }
+
+        cursor.close();
+        return words;
+    }
+
+    /**
+     * 分页获取某个字母、某种熟悉度的单词（不含例句），afterEnglish为上一页最后一个单词，首页传null
+     */
+    public List<Word> getWordPage(String letter, boolean isFamiliar, String afterEnglish, int limit) {
+        List<Word> words = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(SQL_WORD_PAGE, new String[]{
+                letter.toUpperCase(),
+                isFamiliar ? "1" : "0",
+                afterEnglish != null ? afterEnglish : "",
+                String.valueOf(limit)
+        });
+
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            words.add(mapper.map(cursor));
+        }
+
+        cursor.close();
+        return words;
+    }
+
+    /**
+     * 搜索单词：输入包含汉字时在中文释义中做子串匹配，否则做英文前缀匹配和例句分词匹配。
+     * 先列出英文以输入开头的单词（按字母顺序，走英文索引），再列出其余全文匹配（按相关度，最多SEARCH_CANDIDATES个）；
+     * 每页只读取需要的行，不对全部匹配排序。输入中没有可检索的内容时返回空列表
+     */
+    public List<Word> searchWords(String query, int offset, int limit) {
+        List<Word> words = new ArrayList<>();
+        String trimmed = query == null ? "" : query.trim();
+        String[] tokens = tokenizeQuery(trimmed);
+        if (tokens.length == 0 || limit <= 0) {
+            return words;
+        }
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        String phrase = String.join(" ", tokens);
+        boolean isChinese = containsCjk(trimmed);
+        // 英文前缀按原输入比较（如“ice-cream”），分词只用于全文匹配
+        String prefixEnd = prefixUpperBound(trimmed);
+        int prefixCount = 0;
+        if (!isChinese) {
+            try (Cursor cursor = db.rawQuery(SQL_SEARCH_PREFIX, new String[]{
+                    trimmed, prefixEnd, String.valueOf(limit), String.valueOf(offset)})) {
+                WordRowMapper mapper = new WordRowMapper(cursor);
+                while (cursor.moveToNext()) {
+                    words.add(mapper.map(cursor));
+                }
+            }
+            if (words.size() == limit) {
+                return words;
+            }
+            // 第一段已经取完，算出第二段从哪里开始
+            try (Cursor cursor = db.rawQuery(SQL_SEARCH_PREFIX_COUNT, new String[]{trimmed, prefixEnd})) {
+                prefixCount = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            }
+        }
+
+        String sql;
+        String match;
+        String last = tokens[tokens.length - 1];
+        // 太短的前缀不做FTS前缀查询（英文前缀已由第一段覆盖）
+        String star = last.length() >= MIN_FTS_PREFIX_LENGTH ? "*" : "";
+        if (isChinese) {
+            // 逐字短语查询 = 中文子串匹配
+            sql = SQL_SEARCH_CANDIDATES_CHINESE;
+            match = "\"" + phrase + "\"";
+        } else if (tokens.length == 1) {
+            sql = SQL_SEARCH_CANDIDATES;
+            match = star.isEmpty() ? COLUMN_EXAMPLE + ":" + phrase
+                    : COLUMN_ENGLISH + ":" + phrase + star + " OR " + COLUMN_EXAMPLE + ":" + phrase;
+        } else {
+            // 多个词：按短语前缀匹配英文或例句
+            sql = SQL_SEARCH_CANDIDATES;
+            match = "\"" + phrase + star + "\"";
+        }
+
+        List<SearchCandidate> candidates = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(sql, new String[]{match})) {
+            while (cursor.moveToNext()) {
+                String english = cursor.getString(1);
+                // 英文以输入开头的已在第一段列出
+                if (!isChinese && english != null && compareNoCase(english, trimmed) >= 0
+                        && compareNoCase(english, prefixEnd) < 0) {
+                    continue;
+                }
+                candidates.add(new SearchCandidate(cursor.getLong(0), english, relevance(cursor.getString(2))));
+            }
+        }
+        candidates.sort(null);
+
+        int from = Math.max(0, offset - prefixCount);
+        int to = Math.min(candidates.size(), from + limit - words.size());
+        List<Long> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            ids.add(candidates.get(i).id);
+        }
+        words.addAll(getWordsByIds(ids));
+        return words;
+    }
+
+    // 以prefix开头的字符串的上界（不含）：最后一个字符加一
+    private static String prefixUpperBound(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    // 与SQLite的NOCASE排序规则一致：只忽略ASCII字母的大小写，保证与第一段的范围查找划分相同
+    private static int compareNoCase(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x >= 'A' && x <= 'Z') x += 'a' - 'A';
+            if (y >= 'A' && y <= 'Z') y += 'a' - 'A';
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    /**
+     * 由offsets()的结果（每次命中四个整数：列、词、字节偏移、长度）算相关度：按命中的列加权求和
+     */
+    private static int relevance(String offsets) {
+        if (offsets == null || offsets.isEmpty()) {
+            return 0;
+        }
+        String[] values = offsets.split(" ");
+        int score = 0;
+        for (int i = 0; i + 3 < values.length; i += 4) {
+            int column = Integer.parseInt(values[i]);
+            score += column < SEARCH_COLUMN_WEIGHTS.length ? SEARCH_COLUMN_WEIGHTS[column] : 0;
+        }
+        return score;
+    }
+
+    /**
+     * 全文匹配的候选：相关度高的在前，其次英文短的、按字母顺序，最后按ID保证分页时顺序稳定
+     */
+    private static class SearchCandidate implements Comparable<SearchCandidate> {
+        final long id;
+        final String english;
+        final int relevance;
+
+        SearchCandidate(long id, String english, int relevance) {
+            this.id = id;
+            this.english = english == null ? "" : english;
+            this.relevance = relevance;
+        }
+
+        @Override
+        public int compareTo(SearchCandidate other) {
+            if (relevance != other.relevance) {
+                return Integer.compare(other.relevance, relevance);
+            }
+            if (english.length() != other.english.length()) {
+                return Integer.compare(english.length(), other.english.length());
+            }
+            int result = english.compareToIgnoreCase(other.english);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * 把用户输入拆成FTS词元：去掉FTS语法字符，只保留字母、数字，汉字逐字拆开
+     */
+    private static String[] tokenizeQuery(String query) {
+        String split = splitCjk(query);
+        StringBuilder builder = new StringBuilder(split.length());
+        int i = 0;
+        while (i < split.length()) {
+            int codePoint = split.codePointAt(i);
+            builder.appendCodePoint(Character.isLetterOrDigit(codePoint) ? codePoint : ' ');
+            i += Character.charCount(codePoint);
+        }
+        String cleaned = builder.toString().trim();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split("\\s+");
+    }
+
+    private static boolean containsCjk(String text) {
+        return text.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN);
+    }
+
+    /**
+     * 按ID批量获取单词（不含例句），结果顺序与ids一致，不存在的ID跳过
+     */
+    public List<Word> getWordsByIds(List<Long> ids) {
+        List<Word> words = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return words;
+        }
+
+        StringBuilder placeholders = new StringBuilder();
+        String[] args = new String[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+            args[i] = String.valueOf(ids.get(i));
+        }
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_ENGLISH + ", " + COLUMN_PHONETIC + ", "
+                + COLUMN_CHINESE + ", " + COLUMN_FAVORITE + ", " + COLUMN_FAMILIAR + " FROM " + TABLE_WORDS
+                + " WHERE " + COLUMN_ID + " IN (" + placeholders + ")", args);
+
+        Map<Long, Word> byId = new HashMap<>();
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            Word word = mapper.map(cursor);
+            byId.put(word.getId(), word);
+        }
+        cursor.close();
 
+        for (Long id : ids) {
+            Word word = byId.get(id);
+            if (word != null) {
                 words.add(word);
-            } while (cursor.moveToNext());
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 单词总数（从字母统计表求和，不扫描单词表）
+     */
+    public int getWordCount() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(SQL_WORD_COUNT, null);
+        int count = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        cursor.close();
+        return count;
+    }
+
+    /**
+     * 按英文字母顺序（不区分大小写）遍历全部单词（含例句），每次从数据库读取一页，
+     * 内存中最多只有一页单词。遍历期间的修改可能读到也可能读不到
+     */
+    public Iterator<Word> iterateAllWords(int pageSize) {
+        return new Iterator<Word>() {
+            private List<Word> page = new ArrayList<>();
+            private int index;
+            private String lastEnglish = "";
+            private boolean hasMorePages = true;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (!hasMorePages) {
+                    return false;
+                }
+                page = readExportPage(lastEnglish, pageSize);
+                index = 0;
+                hasMorePages = page.size() == pageSize;
+                if (!page.isEmpty()) {
+                    lastEnglish = page.get(page.size() - 1).getEnglish();
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public Word next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+    }
+
+    private List<Word> readExportPage(String afterEnglish, int limit) {
+        List<Word> words = new ArrayList<>(limit);
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(SQL_EXPORT_PAGE, new String[]{afterEnglish, String.valueOf(limit)});
+
+        WordRowMapper mapper = new WordRowMapper(cursor);
+        while (cursor.moveToNext()) {
+            words.add(mapper.map(cursor));
         }
 
         cursor.close();
-        db.close();
         return words;
     }
 
+    /**
+     * 复习队列用：把到期单词的ID和到期时间按到期时间升序填入两个数组（最多填满数组），返回填入的个数
+     */
+    public int getDueWords(long now, long[] ids, long[] dueAts) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(SQL_DUE_WORDS, new String[]{String.valueOf(now), String.valueOf(ids.length)});
+        int count = 0;
+        while (cursor.moveToNext() && count < ids.length) {
+            ids[count] = cursor.getLong(0);
+            dueAts[count] = cursor.getLong(1);
+            count++;
+        }
+        cursor.close();
+        return count;
+    }
+
+    /**
+     * 取从未复习过的新单词ID，按添加顺序
+     */
+    public long[] getNewWordIds(int limit) {
+        return queryIds(SQL_NEW_WORDS, new String[]{String.valueOf(limit)}, limit);
+    }
+
+    /**
+     * 到期时间不晚于now的单词数
+     */
+    public int getDueCount(long now) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return (int) DatabaseUtils.longForQuery(db, SQL_DUE_COUNT, new String[]{String.valueOf(now)});
+    }
+
+    private long[] queryIds(String sql, String[] args, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(sql, args);
+        long[] ids = new long[Math.min(cursor.getCount(), limit)];
+        int count = 0;
+        while (cursor.moveToNext() && count < ids.length) {
+            ids[count++] = cursor.getLong(0);
+        }
+        cursor.close();
+        return ids;
+    }
+
+    /**
+     * 获取单词的复习状态，单词不存在时返回null
+     */
+    public ReviewState getReviewState(long wordId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(SQL_REVIEW_STATE, new String[]{String.valueOf(wordId)});
+        ReviewState state = null;
+        if (cursor.moveToFirst()) {
+            state = new ReviewState(wordId);
+            state.setEase(cursor.getDouble(0));
+            state.setIntervalDays(cursor.getInt(1));
+            state.setDueAt(cursor.isNull(2) ? 0 : cursor.getLong(2));
+            state.setLapses(cursor.getInt(3));
+            state.setReps(cursor.getInt(4));
+        }
+        cursor.close();
+        return state;
+    }
+
+    /**
+     * 批量写入复习状态（一个事务），熟悉度按复习间隔同步更新
+     */
+    public void updateReviewStates(List<ReviewState> states) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(SQL_UPDATE_REVIEW_STATE);
+        db.beginTransaction();
+        try {
+            for (ReviewState state : states) {
+                statement.bindDouble(1, state.getEase());
+                statement.bindLong(2, state.getIntervalDays());
+                if (state.isNew()) {
+                    statement.bindNull(3);
+                } else {
+                    statement.bindLong(3, state.getDueAt());
+                }
+                statement.bindLong(4, state.getLapses());
+                statement.bindLong(5, state.getReps());
+                statement.bindLong(6, isFamiliar(state) ? 1 : 0);
+                statement.bindLong(7, state.getWordId());
+                statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+    }
+
+    /**
+     * 在一个事务中追加复习记录（只写复习记录表，与单词表的更新分开）
+     */
+    public void insertReviewLogs(List<ReviewLog> logs) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(SQL_INSERT_REVIEW_LOG);
+        db.beginTransaction();
+        try {
+            for (ReviewLog log : logs) {
+                statement.bindLong(1, log.getWordId());
+                statement.bindLong(2, log.getReviewedAt());
+                statement.bindLong(3, log.getGrade());
+                statement.bindLong(4, log.getResponseMs());
+                statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+    }
+
+    /**
+     * 把早于before的复习记录按单词汇总进复习统计表，然后删除这些记录（一个事务），返回删除的记录数
+     */
+    public int compactReviewLog(long before) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Cursor cursor = db.rawQuery(SQL_REVIEW_LOG_COMPACT_BOUND, new String[]{String.valueOf(before)});
+            long maxId = cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : -1;
+            cursor.close();
+            int deleted = 0;
+            if (maxId != -1) {
+                db.execSQL(SQL_COMPACT_REVIEW_LOG, new Object[]{maxId});
+                deleted = db.delete(TABLE_REVIEW_LOG, COLUMN_ID + " <= ?", new String[]{String.valueOf(maxId)});
+            }
+            db.setTransactionSuccessful();
+            return deleted;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * 由复习状态派生的熟悉度
+     */
+    public static boolean isFamiliar(ReviewState state) {
+        return state.getIntervalDays() >= FAMILIAR_INTERVAL_DAYS;
+    }
 
+    /**
+     * 英文单词遍历回调
+     */
+    public interface HeadwordVisitor {
+        void visit(long id, String english);
+    }
+
+    /**
+     * 按ID升序遍历ID大于afterId的单词的英文（ID自增且不复用，afterId传上次读到的最大ID即可只读新增的单词）
+     */
+    public void forEachHeadword(long afterId, HeadwordVisitor visitor) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(SQL_HEADWORDS_AFTER, new String[]{String.valueOf(afterId)});
+        while (cursor.moveToNext()) {
+            visitor.visit(cursor.getLong(0), cursor.getString(1));
+        }
+        cursor.close();
+    }
 }
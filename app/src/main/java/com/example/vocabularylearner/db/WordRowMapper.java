@@ -0,0 +1,58 @@
+package com.example.vocabularylearner.db;
+
+import android.database.Cursor;
+
+import com.example.vocabularylearner.entity.Word;
+
+/**
+ * 游标到单词的行映射器：创建时按列名解析一次列下标，之后每行只按下标取值。
+ * 查询结果中没有的列（例如分页查询不取例句）保持默认值
+ */
+class WordRowMapper {
+    private final int idIndex;
+    private final int englishIndex;
+    private final int phoneticIndex;
+    private final int chineseIndex;
+    private final int exampleIndex;
+    private final int favoriteIndex;
+    private final int familiarIndex;
+
+    WordRowMapper(Cursor cursor) {
+        idIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_ID);
+        englishIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_ENGLISH);
+        phoneticIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_PHONETIC);
+        chineseIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_CHINESE);
+        exampleIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_EXAMPLE);
+        favoriteIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_FAVORITE);
+        familiarIndex = cursor.getColumnIndex(WordDbHelper.COLUMN_FAMILIAR);
+    }
+
+    /**
+     * 把游标当前行映射为单词
+     */
+    Word map(Cursor cursor) {
+        Word word = new Word();
+        if (idIndex >= 0) {
+            word.setId(cursor.getLong(idIndex));
+        }
+        if (englishIndex >= 0) {
+            word.setEnglish(cursor.getString(englishIndex));
+        }
+        if (phoneticIndex >= 0) {
+            word.setPhonetic(cursor.getString(phoneticIndex));
+        }
+        if (chineseIndex >= 0) {
+            word.setChinese(cursor.getString(chineseIndex));
+        }
+        if (exampleIndex >= 0) {
+            word.setExample(cursor.getString(exampleIndex));
+        }
+        if (favoriteIndex >= 0) {
+            word.setFavorite(cursor.getInt(favoriteIndex) == 1);
+        }
+        if (familiarIndex >= 0) {
+            word.setFamiliar(cursor.getInt(familiarIndex) == 1);
+        }
+        return word;
+    }
+}
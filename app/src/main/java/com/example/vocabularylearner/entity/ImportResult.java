@@ -0,0 +1,49 @@
+package com.example.vocabularylearner.entity;
+
+/**
+ * 导入结果实体类：存储一次批量导入中新增、更新和跳过的单词数量
+ */
+public class ImportResult {
+    private int insertedCount; // 新增的单词数
+    private int updatedCount;  // 已存在并按合并策略更新的单词数
+    private int skippedCount;  // 已存在而跳过的单词数
+
+    // 无参构造
+    public ImportResult() {}
+
+    // 带参构造（直接初始化统计数据）
+    public ImportResult(int insertedCount, int skippedCount) {
+        this.insertedCount = insertedCount;
+        this.skippedCount = skippedCount;
+    }
+
+    // Getter 和 Setter
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(int insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public void setSkippedCount(int skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+
+    // 本次处理的单词总数
+    public int getTotalCount() {
+        return insertedCount + updatedCount + skippedCount;
+    }
+}
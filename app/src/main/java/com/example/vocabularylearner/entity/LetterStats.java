@@ -1,11 +1,12 @@
 package com.example.vocabularylearner.entity;
 
 /**
- * 字母统计实体类：存储某个字母开头的单词总数和已熟悉数量
+ * 字母统计实体类：存储某个字母开头的单词总数、已熟悉数量和已收藏数量
  */
 public class LetterStats {
     private int totalCount;    // 该字母开头的单词总数
     private int familiarCount; // 该字母开头的已熟悉单词数
+    private int favoriteCount; // 该字母开头的已收藏单词数
 
     // 无参构造
     public LetterStats() {}
@@ -16,6 +17,13 @@ public class LetterStats {
         this.familiarCount = familiarCount;
     }
 
+    // 复制构造
+    public LetterStats(LetterStats other) {
+        this.totalCount = other.totalCount;
+        this.familiarCount = other.familiarCount;
+        this.favoriteCount = other.favoriteCount;
+    }
+
     // Getter 和 Setter（用于获取/修改统计数据）
     public int getTotalCount() {
         return totalCount;
@@ -32,4 +40,12 @@ public class LetterStats {
     public void setFamiliarCount(int familiarCount) {
         this.familiarCount = familiarCount;
     }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(int favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.vocabularylearner.entity;
+
+import java.util.List;
+
+/**
+ * 选择题实体类：题目单词和四个中文释义选项，其中一个是正确答案
+ */
+public class QuizQuestion {
+    private final Word word;
+    private final List<String> choices;
+    private final int answerIndex;   // 正确选项在choices中的位置
+
+    public QuizQuestion(Word word, List<String> choices, int answerIndex) {
+        this.word = word;
+        this.choices = choices;
+        this.answerIndex = answerIndex;
+    }
+
+    // Getter
+    public Word getWord() {
+        return word;
+    }
+
+    public List<String> getChoices() {
+        return choices;
+    }
+
+    public int getAnswerIndex() {
+        return answerIndex;
+    }
+}
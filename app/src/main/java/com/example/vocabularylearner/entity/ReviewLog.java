@@ -0,0 +1,35 @@
+package com.example.vocabularylearner.entity;
+
+/**
+ * 复习记录实体类：一次回答的单词、时间、评分和用时，只追加不修改
+ */
+public class ReviewLog {
+    private final long wordId;
+    private final long reviewedAt;   // 回答时间（毫秒时间戳）
+    private final int grade;         // 评分，见ReviewScheduler
+    private final long responseMs;   // 从显示卡片到回答的用时（毫秒）
+
+    public ReviewLog(long wordId, long reviewedAt, int grade, long responseMs) {
+        this.wordId = wordId;
+        this.reviewedAt = reviewedAt;
+        this.grade = grade;
+        this.responseMs = responseMs;
+    }
+
+    // Getter
+    public long getWordId() {
+        return wordId;
+    }
+
+    public long getReviewedAt() {
+        return reviewedAt;
+    }
+
+    public int getGrade() {
+        return grade;
+    }
+
+    public long getResponseMs() {
+        return responseMs;
+    }
+}
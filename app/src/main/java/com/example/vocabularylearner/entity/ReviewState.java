@@ -0,0 +1,87 @@
+package com.example.vocabularylearner.entity;
+
+/**
+ * 复习状态实体类：存储一个单词的间隔重复调度参数
+ */
+public class ReviewState {
+    // 新单词的难度系数
+    public static final double INITIAL_EASE = 2.5;
+
+    private long wordId;
+    private double ease = INITIAL_EASE; // 难度系数，答对时间隔乘以它
+    private int intervalDays;           // 当前复习间隔（天），0表示还在学习中
+    private long dueAt;                 // 下次复习时间（毫秒时间戳），0表示从未复习过的新单词
+    private int lapses;                 // 复习中忘记的次数
+    private int reps;                   // 连续答对的次数
+
+    // 无参构造
+    public ReviewState() {}
+
+    // 新单词的初始状态
+    public ReviewState(long wordId) {
+        this.wordId = wordId;
+    }
+
+    // 复制构造
+    public ReviewState(ReviewState other) {
+        this.wordId = other.wordId;
+        this.ease = other.ease;
+        this.intervalDays = other.intervalDays;
+        this.dueAt = other.dueAt;
+        this.lapses = other.lapses;
+        this.reps = other.reps;
+    }
+
+    public boolean isNew() {
+        return dueAt == 0;
+    }
+
+    // Getter 和 Setter
+    public long getWordId() {
+        return wordId;
+    }
+
+    public void setWordId(long wordId) {
+        this.wordId = wordId;
+    }
+
+    public double getEase() {
+        return ease;
+    }
+
+    public void setEase(double ease) {
+        this.ease = ease;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+
+    public long getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(long dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public int getLapses() {
+        return lapses;
+    }
+
+    public void setLapses(int lapses) {
+        this.lapses = lapses;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public void setReps(int reps) {
+        this.reps = reps;
+    }
+}
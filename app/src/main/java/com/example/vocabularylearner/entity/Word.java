@@ -23,6 +23,17 @@ public class Word implements Parcelable {
         this.isFamiliar = isFamiliar;
     }
 
+    // 复制构造
+    public Word(Word other) {
+        this.id = other.id;
+        this.english = other.english;
+        this.phonetic = other.phonetic;
+        this.chinese = other.chinese;
+        this.example = other.example;
+        this.isFavorite = other.isFavorite;
+        this.isFamiliar = other.isFamiliar;
+    }
+
     protected Word(Parcel in) {
         id = in.readLong();
         english = in.readString();
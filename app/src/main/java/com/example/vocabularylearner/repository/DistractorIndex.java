@@ -0,0 +1,266 @@
+package com.example.vocabularylearner.repository;
+
+import android.util.Log;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 选择题干扰项的近邻索引：所有单词按（首字母、长度、英文）排序，排在一起的就是首字母相同、长度相近、
+ * 拼写相似的单词。出题时只在题目单词前后一个小窗口内按编辑距离挑选候选，不需要对单词表做随机扫描。
+ * 单词统一存放在字符数组中；单词ID自增不复用，之后只需从数据库读取新增的单词并重新排序。
+ * 在后台预先构建，查询方法可能访问数据库，请在后台线程调用
+ */
+class DistractorIndex {
+    private static final String TAG = "DistractorIndex";
+    private static final int INITIAL_CAPACITY = 1024;
+    // 题目单词前后各看多少个单词、长度最多相差多少
+    private static final int WINDOW = 24;
+    private static final int MAX_LENGTH_DIFF = 3;
+
+    private final WordDbHelper dbHelper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // 按ID升序存放：第i个单词为chars[keyStart[i], keyStart[i + 1])
+    private char[] chars = new char[INITIAL_CAPACITY * 8];
+    private int[] keyStart = new int[INITIAL_CAPACITY + 1];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+    private long maxId;
+    // 排序后的第k个单词是order[k]，第i个单词排在rank[i]
+    private int[] order = new int[0];
+    private int[] rank = new int[0];
+    private boolean isOrderDirty;
+
+    // 编辑距离的两行缓冲
+    private int[] previous = new int[32];
+    private int[] current = new int[32];
+
+    DistractorIndex(WordDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * 在后台读取新增的单词并排序（进入测验页时调用，出题时就不必等待）
+     */
+    void buildAsync() {
+        executor.execute(() -> {
+            try {
+                synchronized (this) {
+                    catchUp();
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "build failed", e);
+            }
+        });
+    }
+
+    /**
+     * 随机取一个单词的ID，没有单词时返回-1
+     */
+    synchronized long randomId(Random random) {
+        catchUp();
+        return size == 0 ? -1 : ids[random.nextInt(size)];
+    }
+
+    /**
+     * 为单词挑选最多limit个干扰项候选的ID，最相似的在前：
+     * 先在窗口内找首字母相同、长度相近的单词按编辑距离排序，不够时按排序位置由近到远补足
+     */
+    synchronized long[] candidates(long id, int limit) {
+        catchUp();
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return new long[0];
+        }
+        int position = rank[index];
+        int from = Math.max(0, position - WINDOW);
+        int to = Math.min(size, position + WINDOW + 1);
+
+        // 候选和距离按距离做插入排序，窗口很小
+        long[] result = new long[Math.min(limit, size - 1)];
+        if (result.length == 0) {
+            return result;
+        }
+        int[] distances = new int[result.length];
+        int count = 0;
+        for (int k = from; k < to; k++) {
+            int other = order[k];
+            if (k == position || !isSimilarShape(index, other)) {
+                continue;
+            }
+            int distance = distance(index, other);
+            if (count == result.length && distance >= distances[count - 1]) {
+                continue;
+            }
+            int j = count < result.length ? count++ : count - 1;
+            while (j > 0 && distances[j - 1] > distance) {
+                result[j] = result[j - 1];
+                distances[j] = distances[j - 1];
+                j--;
+            }
+            result[j] = ids[other];
+            distances[j] = distance;
+        }
+
+        // 单词很少时放宽条件
+        for (int offset = 1; count < result.length && (position - offset >= 0 || position + offset < size); offset++) {
+            count = appendIfAbsent(result, count, position - offset);
+            if (count < result.length) {
+                count = appendIfAbsent(result, count, position + offset);
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 清空索引（清空数据时调用）
+     */
+    synchronized void clear() {
+        chars = new char[INITIAL_CAPACITY * 8];
+        keyStart = new int[INITIAL_CAPACITY + 1];
+        ids = new long[INITIAL_CAPACITY];
+        size = 0;
+        order = new int[0];
+        rank = new int[0];
+        isOrderDirty = false;
+    }
+
+    // 把数据库中新增的单词加进来，有新增时重新排序
+    private void catchUp() {
+        dbHelper.forEachHeadword(maxId, (id, english) -> {
+            add(id, english.trim().toLowerCase(Locale.ROOT));
+            maxId = id;
+        });
+        if (isOrderDirty) {
+            sort();
+        }
+    }
+
+    private void add(long id, String key) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            keyStart = Arrays.copyOf(keyStart, capacity + 1);
+        }
+        int end = keyStart[size] + key.length();
+        if (end > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(end, chars.length * 2));
+        }
+        key.getChars(0, key.length(), chars, keyStart[size]);
+        keyStart[size + 1] = end;
+        ids[size] = id;
+        size++;
+        isOrderDirty = true;
+    }
+
+    // 自底向上的归并排序，比较不需要装箱
+    private void sort() {
+        int[] a = new int[size];
+        int[] b = new int[size];
+        for (int i = 0; i < size; i++) {
+            a[i] = i;
+        }
+        for (int width = 1; width < size; width *= 2) {
+            for (int lo = 0; lo < size; lo += 2 * width) {
+                int mid = Math.min(lo + width, size);
+                int hi = Math.min(lo + 2 * width, size);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    b[k] = i < mid && (j >= hi || compare(a[i], a[j]) <= 0) ? a[i++] : a[j++];
+                }
+            }
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        order = a;
+        rank = b;
+        for (int k = 0; k < size; k++) {
+            rank[order[k]] = k;
+        }
+        isOrderDirty = false;
+    }
+
+    // 依次比较首字母、长度、英文
+    private int compare(int first, int second) {
+        int firstStart = keyStart[first];
+        int secondStart = keyStart[second];
+        int firstLength = keyStart[first + 1] - firstStart;
+        int secondLength = keyStart[second + 1] - secondStart;
+        if (firstLength == 0 || secondLength == 0) {
+            return Integer.compare(firstLength, secondLength);
+        }
+        if (chars[firstStart] != chars[secondStart]) {
+            return Character.compare(chars[firstStart], chars[secondStart]);
+        }
+        if (firstLength != secondLength) {
+            return Integer.compare(firstLength, secondLength);
+        }
+        return Arrays.compare(chars, firstStart, firstStart + firstLength, chars, secondStart, secondStart + secondLength);
+    }
+
+    /**
+     * 首字母相同、长度相近，且不是同一词根的变形（一个是另一个的前缀时释义往往太接近）
+     */
+    private boolean isSimilarShape(int word, int other) {
+        int wordStart = keyStart[word];
+        int otherStart = keyStart[other];
+        int wordLength = keyStart[word + 1] - wordStart;
+        int otherLength = keyStart[other + 1] - otherStart;
+        if (wordLength == 0 || otherLength == 0 || chars[wordStart] != chars[otherStart]
+                || Math.abs(wordLength - otherLength) > MAX_LENGTH_DIFF) {
+            return false;
+        }
+        int shorter = Math.min(wordLength, otherLength);
+        return !Arrays.equals(chars, wordStart, wordStart + shorter, chars, otherStart, otherStart + shorter);
+    }
+
+    private int appendIfAbsent(long[] result, int count, int position) {
+        if (position < 0 || position >= size) {
+            return count;
+        }
+        long id = ids[order[position]];
+        for (int i = 0; i < count; i++) {
+            if (result[i] == id) {
+                return count;
+            }
+        }
+        result[count] = id;
+        return count + 1;
+    }
+
+    // 两个单词的编辑距离（Levenshtein），单词都很短，直接用两行动态规划
+    private int distance(int first, int second) {
+        int firstStart = keyStart[first];
+        int secondStart = keyStart[second];
+        int m = keyStart[first + 1] - firstStart;
+        int n = keyStart[second + 1] - secondStart;
+        if (previous.length < n + 1) {
+            previous = new int[n + 1];
+            current = new int[n + 1];
+        }
+        int[] prev = previous;
+        int[] curr = current;
+        for (int j = 0; j <= n; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            curr[0] = i;
+            char c = chars[firstStart + i - 1];
+            for (int j = 1; j <= n; j++) {
+                int cost = chars[secondStart + j - 1] == c ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[n];
+    }
+}
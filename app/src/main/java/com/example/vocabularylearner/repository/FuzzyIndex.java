@@ -0,0 +1,383 @@
+package com.example.vocabularylearner.repository;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 英文单词的拼写容错索引（BK树，编辑距离）。
+ * 按编辑距离d把子节点挂在父节点下，查询距离不超过n的单词时只需进入边长在[d-n, d+n]内的子树，
+ * 不必对每个单词计算编辑距离。
+ * 插入时用“第一个孩子/下一个兄弟”链表维护树结构；查询前把树按层序重排成紧凑数组，
+ * 每个节点的孩子连续存放并按边长排序，只需读取符合范围的一段，兄弟节点的单词在内存中也相邻。
+ * 单词统一存放在字符数组中，距离计算用Myers位并行算法，避免逐个访问字符串对象。
+ * 第一次查询时构建，之后每次查询前只从数据库读取新增的单词（ID自增不复用），
+ * 所有方法都可能访问数据库，请在后台线程调用
+ */
+class FuzzyIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_NODE = -1;
+
+    private final HeadwordSource source;
+    // 所有单词（小写）首尾相接存放，第i个单词为chars[keyStart[i], keyStart[i + 1])
+    private char[] chars = new char[INITIAL_CAPACITY * 8];
+    private int[] keyStart = new int[INITIAL_CAPACITY + 1];
+    // 节点（按插入顺序）：单词ID、第一个孩子、下一个兄弟、与父节点的编辑距离
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] edge = new int[INITIAL_CAPACITY];
+    private int size;
+    // 已索引的最大单词ID
+    private long maxId;
+
+    // 查询用的层序布局：第i个位置的单词、单词ID、孩子所在区间、与父节点的编辑距离
+    private char[] levelChars = new char[0];
+    private int[] levelKeyStart = new int[1];
+    private long[] levelIds = new long[0];
+    private int[] levelChildStart = new int[1];
+    private int[] levelEdge = new int[0];
+    private boolean isLayoutDirty;
+
+    // 插入和查询各自复用的模式串预处理
+    private final Pattern insertPattern = new Pattern();
+    private final Pattern searchPattern = new Pattern();
+
+    /**
+     * 单词来源：按ID升序列出ID大于afterId的单词（即WordDbHelper.forEachHeadword，测试时可换成内存列表）
+     */
+    interface HeadwordSource {
+        void forEachHeadword(long afterId, WordDbHelper.HeadwordVisitor visitor);
+    }
+
+    /**
+     * 一条匹配结果
+     */
+    static class Match {
+        final long id;
+        final String key;
+        final int distance;
+
+        Match(long id, String key, int distance) {
+            this.id = id;
+            this.key = key;
+            this.distance = distance;
+        }
+    }
+
+    FuzzyIndex(HeadwordSource source) {
+        this.source = source;
+    }
+
+    /**
+     * 查找与query编辑距离不超过maxDistance的单词，按距离、长度差、字母顺序排序，最多返回limit个
+     */
+    synchronized List<Match> search(String query, int maxDistance, int limit) {
+        catchUp();
+        List<Match> matches = new ArrayList<>();
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || size == 0) {
+            return matches;
+        }
+        if (isLayoutDirty) {
+            buildLevelLayout();
+        }
+
+        searchPattern.reset(key);
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int position = stack[--top];
+            int keyEnd = levelKeyStart[position + 1];
+            int distance = searchPattern.distanceTo(levelChars, levelKeyStart[position], keyEnd);
+            if (distance <= maxDistance) {
+                String matched = new String(levelChars, levelKeyStart[position], keyEnd - levelKeyStart[position]);
+                matches.add(new Match(levelIds[position], matched, distance));
+            }
+
+            // 三角不等式：距离不超过maxDistance的单词只可能在边长[distance - n, distance + n]的子树里
+            int end = levelChildStart[position + 1];
+            for (int child = levelChildStart[position]; child < end; child++) {
+                int childEdge = levelEdge[child];
+                if (childEdge < distance - maxDistance) {
+                    continue;
+                }
+                if (childEdge > distance + maxDistance) {
+                    break;
+                }
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+
+        matches.sort((m1, m2) -> {
+            if (m1.distance != m2.distance) {
+                return Integer.compare(m1.distance, m2.distance);
+            }
+            int lengthDiff1 = Math.abs(m1.key.length() - key.length());
+            int lengthDiff2 = Math.abs(m2.key.length() - key.length());
+            if (lengthDiff1 != lengthDiff2) {
+                return Integer.compare(lengthDiff1, lengthDiff2);
+            }
+            return m1.key.compareTo(m2.key);
+        });
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * 清空索引（清空数据时调用）
+     */
+    synchronized void clear() {
+        chars = new char[INITIAL_CAPACITY * 8];
+        keyStart = new int[INITIAL_CAPACITY + 1];
+        ids = new long[INITIAL_CAPACITY];
+        firstChild = new int[INITIAL_CAPACITY];
+        nextSibling = new int[INITIAL_CAPACITY];
+        edge = new int[INITIAL_CAPACITY];
+        size = 0;
+        levelChars = new char[0];
+        levelKeyStart = new int[1];
+        levelIds = new long[0];
+        levelChildStart = new int[1];
+        levelEdge = new int[0];
+        isLayoutDirty = false;
+    }
+
+    // 把数据库中新增的单词插入树中
+    private void catchUp() {
+        source.forEachHeadword(maxId, (id, english) -> {
+            insert(id, english.toLowerCase(Locale.ROOT));
+            maxId = id;
+        });
+    }
+
+    private void insert(long id, String key) {
+        int node = size;
+        ensureCapacity(size + 1, keyStart[size] + key.length());
+        key.getChars(0, key.length(), chars, keyStart[node]);
+        keyStart[node + 1] = keyStart[node] + key.length();
+        ids[node] = id;
+        firstChild[node] = NO_NODE;
+        nextSibling[node] = NO_NODE;
+        size++;
+        isLayoutDirty = true;
+        if (node == 0) {
+            return;
+        }
+
+        int parent = 0;
+        insertPattern.reset(key);
+        while (true) {
+            int distance = insertPattern.distanceTo(chars, keyStart[parent], keyStart[parent + 1]);
+            int child = firstChild[parent];
+            while (child != NO_NODE && edge[child] != distance) {
+                child = nextSibling[child];
+            }
+            if (child == NO_NODE) {
+                edge[node] = distance;
+                nextSibling[node] = firstChild[parent];
+                firstChild[parent] = node;
+                return;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * 按层序重排：同一节点的孩子排在一起并按边长升序
+     */
+    private void buildLevelLayout() {
+        // 先确定层序，再按层序复制单词
+        int[] levelNode = new int[size];
+        levelChildStart = new int[size + 1];
+        levelEdge = new int[size];
+        levelNode[0] = 0;
+        int tail = 1;
+        int[] children = new int[16];
+        for (int position = 0; position < size; position++) {
+            levelChildStart[position] = tail;
+            int count = 0;
+            for (int child = firstChild[levelNode[position]]; child != NO_NODE; child = nextSibling[child]) {
+                if (count == children.length) {
+                    children = Arrays.copyOf(children, count * 2);
+                }
+                children[count++] = child;
+            }
+            sortByEdge(children, count);
+            for (int i = 0; i < count; i++) {
+                levelNode[tail] = children[i];
+                levelEdge[tail] = edge[children[i]];
+                tail++;
+            }
+        }
+        levelChildStart[size] = tail;
+
+        levelChars = new char[keyStart[size]];
+        levelKeyStart = new int[size + 1];
+        levelIds = new long[size];
+        for (int position = 0; position < size; position++) {
+            int node = levelNode[position];
+            int length = keyStart[node + 1] - keyStart[node];
+            System.arraycopy(chars, keyStart[node], levelChars, levelKeyStart[position], length);
+            levelKeyStart[position + 1] = levelKeyStart[position] + length;
+            levelIds[position] = ids[node];
+        }
+        isLayoutDirty = false;
+    }
+
+    // 孩子数量很少（不超过最长单词长度），插入排序即可
+    private void sortByEdge(int[] nodes, int count) {
+        for (int i = 1; i < count; i++) {
+            int node = nodes[i];
+            int j = i - 1;
+            while (j >= 0 && edge[nodes[j]] > edge[node]) {
+                nodes[j + 1] = nodes[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+        }
+    }
+
+    private void ensureCapacity(int nodeCapacity, int charCapacity) {
+        if (charCapacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(charCapacity, chars.length * 2));
+        }
+        if (nodeCapacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(nodeCapacity, ids.length * 2);
+        keyStart = Arrays.copyOf(keyStart, newCapacity + 1);
+        ids = Arrays.copyOf(ids, newCapacity);
+        firstChild = Arrays.copyOf(firstChild, newCapacity);
+        nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+        edge = Arrays.copyOf(edge, newCapacity);
+    }
+
+    /**
+     * 预处理过的模式串，计算它到其他字符串的编辑距离（Levenshtein）
+     */
+    private static class Pattern {
+        private static final int ASCII_SIZE = 128;
+
+        private String text;
+        // 每个字符在模式串中出现位置的位掩码，非ASCII字符单独存放
+        private final long[] asciiMasks = new long[ASCII_SIZE];
+        private char[] otherChars = new char[0];
+        private long[] otherMasks = new long[0];
+        private int otherCount;
+        // 动态规划的两行缓冲（模式串超过64个字符时使用）
+        private int[] previous = new int[0];
+        private int[] current = new int[0];
+
+        void reset(String text) {
+            this.text = text;
+            if (text.length() > Long.SIZE) {
+                if (previous.length < text.length() + 1) {
+                    previous = new int[text.length() + 1];
+                    current = new int[text.length() + 1];
+                }
+                return;
+            }
+            Arrays.fill(asciiMasks, 0);
+            otherCount = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < ASCII_SIZE) {
+                    asciiMasks[c] |= 1L << i;
+                    continue;
+                }
+                int index = indexOfOther(c);
+                if (index < 0) {
+                    if (otherCount == otherChars.length) {
+                        otherChars = Arrays.copyOf(otherChars, otherCount + 4);
+                        otherMasks = Arrays.copyOf(otherMasks, otherCount + 4);
+                    }
+                    index = otherCount++;
+                    otherChars[index] = c;
+                    otherMasks[index] = 0;
+                }
+                otherMasks[index] |= 1L << i;
+            }
+        }
+
+        /**
+         * 到chars[start, end)的编辑距离
+         */
+        int distanceTo(char[] chars, int start, int end) {
+            if (text.length() > Long.SIZE) {
+                return dynamicDistance(chars, start, end);
+            }
+            int m = text.length();
+            if (m == 0) {
+                return end - start;
+            }
+
+            // Myers/Hyyrö：用位向量表示动态规划表一列中相邻格的差值（+1/-1），逐字符更新
+            long last = 1L << (m - 1);
+            long pv = -1L;
+            long mv = 0;
+            int score = m;
+            for (int i = start; i < end; i++) {
+                long eq = maskOf(chars[i]);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // 第0行D[0][j] = j，水平差值恒为+1
+                ph = (ph << 1) | 1;
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score;
+        }
+
+        private long maskOf(char c) {
+            if (c < ASCII_SIZE) {
+                return asciiMasks[c];
+            }
+            int index = indexOfOther(c);
+            return index < 0 ? 0 : otherMasks[index];
+        }
+
+        private int indexOfOther(char c) {
+            for (int i = 0; i < otherCount; i++) {
+                if (otherChars[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int dynamicDistance(char[] chars, int start, int end) {
+            int[] prev = previous;
+            int[] curr = current;
+            for (int j = 0; j <= text.length(); j++) {
+                prev[j] = j;
+            }
+            for (int i = 1; i <= end - start; i++) {
+                curr[0] = i;
+                char c = chars[start + i - 1];
+                for (int j = 1; j <= text.length(); j++) {
+                    int cost = text.charAt(j - 1) == c ? 0 : 1;
+                    curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                }
+                int[] swap = prev;
+                prev = curr;
+                curr = swap;
+            }
+            return prev[text.length()];
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.vocabularylearner.repository;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.example.vocabularylearner.db.MergePolicy;
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.ImportResult;
+import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.utils.ExcelUtils;
+import com.example.vocabularylearner.utils.WordListParser;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 流水线导入（Excel或文本单词表）：解析、规整、写库三个阶段分别在各自的线程上运行，阶段之间用有界队列按批传递单词。
+ * 写库较慢时队列写满，解析线程阻塞等待，内存占用不随文件大小增长；
+ * 解析和写库同时进行，总耗时接近两者中较慢的一个，而不是两者之和。
+ * 写库阶段在调用线程上运行，请在后台线程调用run。
+ * 每个分块连同检查点（文件Uri+内容SHA-256）一起提交，取消或进程被杀后再次导入同一文件时从检查点之后继续
+ */
+public class ImportPipeline {
+    // 每批单词数、每个队列最多积压的批数
+    private static final int BATCH_SIZE = 256;
+    private static final int QUEUE_CAPACITY = 4;
+    // 输入结束标记（按引用比较）
+    private static final Batch END_OF_INPUT = new Batch(0);
+    // 规整后每行的处理方式
+    private static final byte ACTION_INSERT = 0;
+    private static final byte ACTION_MERGE = 1;
+    private static final byte ACTION_SKIP = 2;
+    // 两次进度回调的最小间隔
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    private final Context context;
+    private final WordDbHelper dbHelper;
+    private final MergePolicy policy;
+    private final BlockingQueue<Batch> parsedQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<Batch> normalizedQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private OnProgressListener progressListener;
+    private volatile boolean cancelled;
+    // 写库结束（成功或出错）后置位，前面的阶段不再等待下一阶段取走数据
+    private volatile boolean finished;
+    // 解析线程正在填充的批、已解析的行数、从检查点恢复时要跳过的行数
+    private Batch parsingBatch = new Batch(BATCH_SIZE);
+    private volatile int parsedCount;
+    private int resumeRowCount;
+    // 写库开始的时间，用于计算速度
+    private long writeStartTime;
+
+    /**
+     * 导入进度回调（在写库线程调用）
+     */
+    public interface OnProgressListener {
+        // 从上次中断处继续，前resumedRows行已在上次导入中提交
+        void onResumed(int resumedRows);
+
+        // parsedRows：已解析的行数；result：已提交和待提交的统计（含上次导入）；rowsPerSecond：本次每秒处理的行数
+        void onProgress(int parsedRows, ImportResult result, int rowsPerSecond);
+    }
+
+    public ImportPipeline(Context context, WordDbHelper dbHelper, MergePolicy policy) {
+        this.context = context;
+        this.dbHelper = dbHelper;
+        this.policy = policy;
+    }
+
+    public void setOnProgressListener(OnProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    /**
+     * 取消导入（可以在任意线程调用）：已处理的行连同检查点提交后，run抛出CancellationException
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 导入Uri指向的文件。出错时已提交的分块和检查点会保留，再次导入同一文件时从中断处继续
+     */
+    public ImportResult run(Uri uri) throws Exception {
+        // 复制到本地时顺便计算内容摘要，文件被修改过就不会误用旧的检查点
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        File file = ExcelUtils.copyToCacheFile(context, uri, digest);
+        try {
+            return run(uri, file, toHex(digest.digest()));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private ImportResult run(Uri uri, File file, String contentHash) throws Exception {
+        String mimeType = context.getContentResolver().getType(uri);
+        ExecutorService stages = Executors.newFixedThreadPool(2);
+        WordDbHelper.BulkInserter inserter = dbHelper.beginBulkInsert(policy, uri.toString(), contentHash);
+        try {
+            resumeRowCount = inserter.getResumeRowCount();
+            if (resumeRowCount > 0 && progressListener != null) {
+                progressListener.onResumed(resumeRowCount);
+            }
+
+            Future<?> parser = stages.submit(() -> {
+                parse(file, mimeType);
+                return null;
+            });
+            Future<?> normalizer = stages.submit(() -> {
+                normalize();
+                return null;
+            });
+
+            write(inserter);
+            if (cancelled) {
+                // 保留已处理的行，下次从这里继续
+                inserter.commit();
+                throw new CancellationException("导入已取消");
+            }
+            // 前面的阶段出错时也会发出结束标记，这里把它的异常抛给调用方。
+            // 先等规整阶段：它出错时解析阶段可能还阻塞在写满的队列上，要由finally中断
+            awaitStage(normalizer);
+            awaitStage(parser);
+
+            ImportResult result = inserter.finish();
+            reportProgress(inserter);
+            return result;
+        } finally {
+            // 写库出错时中断仍在阻塞等待的前面阶段
+            finished = true;
+            stages.shutdownNow();
+            inserter.abort();
+        }
+    }
+
+    /**
+     * 解析阶段：流式读取表格或文本单词表，每凑满一批放入队列。从检查点恢复时，已提交的行解析后直接丢弃
+     */
+    private void parse(File file, String mimeType) throws Exception {
+        try {
+            ExcelUtils.OnWordParsedListener listener = word -> {
+                if (cancelled) {
+                    throw new CancellationException("导入已取消");
+                }
+                if (++parsedCount <= resumeRowCount) {
+                    return;
+                }
+                parsingBatch.add(word, null, ACTION_INSERT);
+                if (parsingBatch.size == BATCH_SIZE) {
+                    putUninterruptibly(parsedQueue, parsingBatch);
+                    parsingBatch = new Batch(BATCH_SIZE);
+                }
+            };
+            // 文本文件不经过POI
+            if (WordListParser.isTextFile(file)) {
+                WordListParser.parse(file, mimeType, listener);
+            } else {
+                ExcelUtils.parseExcelFile(file, mimeType, listener);
+            }
+            if (parsingBatch.size > 0) {
+                parsedQueue.put(parsingBatch);
+            }
+        } finally {
+            finishStage(parsedQueue);
+        }
+    }
+
+    /**
+     * 规整阶段：去掉首尾空白、计算首字母，并用内存中的英文集合判断单词是否已存在
+     * （文件内重复的单词也按已存在处理），跳过策略下已存在的单词只计数，不访问数据库。
+     * 每一行都交给写库阶段，检查点的行号才与解析的行号一致
+     */
+    private void normalize() throws Exception {
+        try {
+            // 与英文唯一索引的COLLATE NOCASE一致：只忽略ASCII字母的大小写
+            Set<String> headwords = new HashSet<>();
+            dbHelper.forEachHeadword(0, (id, english) -> headwords.add(foldCase(english)));
+
+            Batch output = new Batch(BATCH_SIZE);
+            Batch input;
+            while ((input = parsedQueue.take()) != END_OF_INPUT) {
+                for (int i = 0; i < input.size; i++) {
+                    Word word = input.words[i];
+                    normalizeFields(word);
+                    byte action;
+                    if (word.getEnglish().isEmpty()) {
+                        action = ACTION_SKIP;
+                    } else if (headwords.add(foldCase(word.getEnglish()))) {
+                        action = ACTION_INSERT;
+                    } else {
+                        action = policy == MergePolicy.SKIP ? ACTION_SKIP : ACTION_MERGE;
+                    }
+                    output.add(word, action == ACTION_INSERT ? WordDbHelper.getFirstLetter(word.getEnglish()) : null, action);
+                    if (output.size == BATCH_SIZE) {
+                        normalizedQueue.put(output);
+                        output = new Batch(BATCH_SIZE);
+                    }
+                }
+            }
+            if (output.size > 0) {
+                normalizedQueue.put(output);
+            }
+        } finally {
+            finishStage(normalizedQueue);
+        }
+    }
+
+    /**
+     * 写库阶段：在批量导入会话中逐批写入，已知存在的单词直接按合并策略更新。
+     * 每批之间检查是否已取消，并按间隔回调进度
+     */
+    private void write(WordDbHelper.BulkInserter inserter) throws InterruptedException {
+        writeStartTime = System.nanoTime();
+        long lastReportTime = writeStartTime;
+        Batch batch;
+        while (!cancelled && (batch = normalizedQueue.take()) != END_OF_INPUT) {
+            for (int i = 0; i < batch.size; i++) {
+                switch (batch.actions[i]) {
+                    case ACTION_INSERT:
+                        inserter.insert(batch.words[i], batch.firstLetters[i]);
+                        break;
+                    case ACTION_MERGE:
+                        inserter.merge(batch.words[i]);
+                        break;
+                    default:
+                        inserter.skip();
+                        break;
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReportTime >= PROGRESS_INTERVAL_MS * 1_000_000L) {
+                lastReportTime = now;
+                reportProgress(inserter);
+            }
+        }
+    }
+
+    private void reportProgress(WordDbHelper.BulkInserter inserter) {
+        if (progressListener == null) {
+            return;
+        }
+        long elapsedMs = Math.max((System.nanoTime() - writeStartTime) / 1_000_000L, 1);
+        int rows = inserter.getRowCount() - resumeRowCount;
+        progressListener.onProgress(parsedCount, inserter.getResult(), (int) (rows * 1000L / elapsedMs));
+    }
+
+    // 通知下一阶段输入结束；写库已经结束时没有人再读取队列，不再放入
+    private void finishStage(BlockingQueue<Batch> queue) throws InterruptedException {
+        if (!finished) {
+            queue.put(END_OF_INPUT);
+        }
+    }
+
+    // 解析回调不能抛出受检异常，被中断时改为抛出CancellationException结束解析
+    private static void putUninterruptibly(BlockingQueue<Batch> queue, Batch batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("导入已取消");
+        }
+    }
+
+    private static void awaitStage(Future<?> stage) throws Exception {
+        try {
+            stage.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void normalizeFields(Word word) {
+        word.setEnglish(clean(word.getEnglish()));
+        word.setPhonetic(clean(word.getPhonetic()));
+        word.setChinese(clean(word.getChinese()));
+        word.setExample(clean(word.getExample()));
+    }
+
+    // 表格中常见的不换行空格也当作空白去掉
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\u00A0', ' ').trim();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static String foldCase(String english) {
+        char[] chars = english.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] += 'a' - 'A';
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 阶段之间传递的一批单词，规整后附带首字母和处理方式
+     */
+    private static final class Batch {
+        final Word[] words;
+        final String[] firstLetters;
+        final byte[] actions;
+        int size;
+
+        Batch(int capacity) {
+            words = new Word[capacity];
+            firstLetters = new String[capacity];
+            actions = new byte[capacity];
+        }
+
+        void add(Word word, String firstLetter, byte action) {
+            words[size] = word;
+            firstLetters[size] = firstLetter;
+            actions[size] = action;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.vocabularylearner.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.Word;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 英文单词的内存前缀索引，用于输入时即时联想，不访问SQLite。
+ * 主体是按小写英文排序的只读文件，通过内存映射读取：ID数组、两个偏移数组、小写键和英文原文的UTF-8字符串区，
+ * 查询时直接在映射上按字节比较小写键二分定位前缀，只为返回的结果解码英文；
+ * 之后新增的单词先放在内存中的有序增量表里，超过阈值再与文件合并重写。
+ * 单词ID自增且不复用，所以只需记住已索引的最大ID，就能从数据库只读出新增的单词；新增单词都经refresh按顺序补读，
+ * 最大ID不会越过还没读到的行。
+ * 构建和更新在后台线程串行执行，查询读取不可变快照，可以在主线程调用
+ */
+class PrefixIndex {
+    private static final String TAG = "PrefixIndex";
+    private static final String FILE_NAME = "headword_prefix.idx";
+    private static final int MAGIC = 0x57504958;
+    // 版本2起存放小写键，旧版本的文件打开失败后从数据库重建
+    private static final int FORMAT_VERSION = 2;
+    // 文件头：魔数、格式版本、条数、最大ID
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+    // 增量表超过这个条数时与文件合并
+    private static final int MERGE_THRESHOLD = 2000;
+
+    private final WordDbHelper dbHelper;
+    private final File file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile Snapshot snapshot = new Snapshot(null, newOverlay(), 0);
+    // 只在后台线程访问
+    private boolean isFileLoaded;
+
+    PrefixIndex(Context context, WordDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.file = new File(context.getNoBackupFilesDir(), FILE_NAME);
+    }
+
+    /**
+     * 在后台加载索引文件，并补上数据库中新增的单词（启动时和导入后调用）
+     */
+    void refreshAsync() {
+        executor.execute(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException | IOException e) {
+                Log.e(TAG, "refresh failed", e);
+            }
+        });
+    }
+
+    /**
+     * 清空索引（清空数据时调用）。
+     * 保留已索引的最大ID：单词表的ID是AUTOINCREMENT，清空后也不会复用，之后新增的单词ID仍大于它，
+     * 按最大ID补读新增单词的做法不受影响；如果改成会复用ID的主键，这里必须把最大ID归零
+     */
+    void clear() {
+        executor.execute(() -> {
+            snapshot = new Snapshot(null, newOverlay(), snapshot.maxId);
+            isFileLoaded = true;
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "delete index file failed");
+            }
+        });
+    }
+
+    /**
+     * 查找以prefix开头（不区分大小写）的单词，按字母顺序最多返回limit个，只填充ID和英文
+     */
+    List<Word> lookup(String prefix, int limit) {
+        String key = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        Snapshot current = snapshot;
+        List<Word> result = new ArrayList<>(limit);
+        MappedIndex base = current.base;
+        int baseIndex = base == null ? 0 : base.lowerBound(keyBytes);
+        int baseEnd = base == null ? 0 : base.count;
+        // 增量表从第一个不小于前缀的条目开始，到不再以前缀开头为止
+        Iterator<Entry> overlayIterator = current.overlay.tailSet(new Entry(Long.MIN_VALUE, key), true).iterator();
+        Entry nextOverlay = nextMatching(overlayIterator, keyBytes);
+
+        // 两个有序序列归并，文件中的条目只在加入结果时解码
+        while (result.size() < limit) {
+            boolean baseMatches = baseIndex < baseEnd && base.keyStartsWith(baseIndex, keyBytes);
+            if (!baseMatches && nextOverlay == null) {
+                break;
+            }
+            if (nextOverlay == null || (baseMatches && base.compareTo(baseIndex, nextOverlay) <= 0)) {
+                result.add(toWord(base.id(baseIndex), base.english(baseIndex)));
+                baseIndex++;
+            } else {
+                result.add(toWord(nextOverlay.id, nextOverlay.english));
+                nextOverlay = nextMatching(overlayIterator, keyBytes);
+            }
+        }
+        return result;
+    }
+
+    private void refresh() throws IOException {
+        if (!isFileLoaded) {
+            isFileLoaded = true;
+            MappedIndex base = MappedIndex.open(file);
+            if (base != null) {
+                snapshot = new Snapshot(base, newOverlay(), base.maxId);
+            }
+        }
+
+        Snapshot current = snapshot;
+        List<Entry> added = new ArrayList<>();
+        dbHelper.forEachHeadword(current.maxId, (id, english) -> added.add(new Entry(id, english)));
+        if (added.isEmpty()) {
+            return;
+        }
+
+        long maxId = added.get(added.size() - 1).id;
+        if (current.overlay.size() + added.size() <= MERGE_THRESHOLD) {
+            TreeSet<Entry> overlay = new TreeSet<>(current.overlay);
+            overlay.addAll(added);
+            snapshot = new Snapshot(current.base, overlay, maxId);
+            return;
+        }
+
+        // 大批量新增（首次构建、导入）直接排序后与文件合并，不经过增量表
+        added.addAll(current.overlay);
+        added.sort(PrefixIndex::compare);
+        MappedIndex merged = writeMerged(current.base, added, maxId);
+        snapshot = new Snapshot(merged, newOverlay(), maxId);
+        Log.d(TAG, "index rebuilt: " + merged.count + " words");
+    }
+
+    /**
+     * 把文件中的条目与已排序的新条目归并写入新文件（先写临时文件再替换），返回新文件的映射
+     */
+    private MappedIndex writeMerged(MappedIndex base, List<Entry> sortedEntries, long maxId) throws IOException {
+        int total = (base == null ? 0 : base.count) + sortedEntries.size();
+        long[] ids = new long[total];
+        int[] keyOffsets = new int[total + 1];
+        int[] englishOffsets = new int[total + 1];
+        ByteArrayOutputStream keyBlob = new ByteArrayOutputStream(total * 10);
+        ByteArrayOutputStream englishBlob = new ByteArrayOutputStream(total * 10);
+
+        // 文件中的条目按字节比较、按字节复制，不解码成字符串
+        int baseIndex = 0;
+        int baseEnd = base == null ? 0 : base.count;
+        Iterator<Entry> overlayIterator = sortedEntries.iterator();
+        Entry nextOverlay = overlayIterator.hasNext() ? overlayIterator.next() : null;
+        for (int i = 0; i < total; i++) {
+            if (nextOverlay == null || (baseIndex < baseEnd && base.compareTo(baseIndex, nextOverlay) <= 0)) {
+                ids[i] = base.id(baseIndex);
+                base.copyKey(baseIndex, keyBlob);
+                base.copyEnglish(baseIndex, englishBlob);
+                baseIndex++;
+            } else {
+                ids[i] = nextOverlay.id;
+                keyBlob.write(nextOverlay.keyBytes, 0, nextOverlay.keyBytes.length);
+                byte[] english = nextOverlay.english.getBytes(StandardCharsets.UTF_8);
+                englishBlob.write(english, 0, english.length);
+                nextOverlay = overlayIterator.hasNext() ? overlayIterator.next() : null;
+            }
+            keyOffsets[i + 1] = keyBlob.size();
+            englishOffsets[i + 1] = englishBlob.size();
+        }
+
+        File tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(total);
+            out.writeLong(maxId);
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+            for (int offset : keyOffsets) {
+                out.writeInt(offset);
+            }
+            for (int offset : englishOffsets) {
+                out.writeInt(offset);
+            }
+            keyBlob.writeTo(out);
+            englishBlob.writeTo(out);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("rename index file failed");
+        }
+
+        MappedIndex merged = MappedIndex.open(file);
+        if (merged == null) {
+            throw new IOException("reopen index file failed");
+        }
+        return merged;
+    }
+
+    // 排序规则：小写英文的UTF-8字节（无符号），相同时按ID；文件和增量表用同一规则
+    private static int compare(Entry entry1, Entry entry2) {
+        int result = Arrays.compareUnsigned(entry1.keyBytes, entry2.keyBytes);
+        return result != 0 ? result : Long.compare(entry1.id, entry2.id);
+    }
+
+    private static TreeSet<Entry> newOverlay() {
+        return new TreeSet<>(PrefixIndex::compare);
+    }
+
+    // 增量表中下一个以前缀开头的条目，没有则返回null
+    private static Entry nextMatching(Iterator<Entry> iterator, byte[] prefix) {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Entry entry = iterator.next();
+        return entry.keyBytes.length >= prefix.length
+                && Arrays.equals(entry.keyBytes, 0, prefix.length, prefix, 0, prefix.length) ? entry : null;
+    }
+
+    private static Word toWord(long id, String english) {
+        Word word = new Word();
+        word.setId(id);
+        word.setEnglish(english);
+        return word;
+    }
+
+    /**
+     * 增量表中的一条
+     */
+    private static class Entry {
+        final long id;
+        final String english;
+        // 小写英文的UTF-8字节，排序和前缀比较用
+        final byte[] keyBytes;
+
+        Entry(long id, String english) {
+            this.id = id;
+            this.english = english;
+            this.keyBytes = english.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 不可变的索引快照
+     */
+    private static class Snapshot {
+        final MappedIndex base;
+        final TreeSet<Entry> overlay;
+        final long maxId;
+
+        Snapshot(MappedIndex base, TreeSet<Entry> overlay, long maxId) {
+            this.base = base;
+            this.overlay = overlay;
+            this.maxId = maxId;
+        }
+    }
+
+    /**
+     * 内存映射的索引文件：头部、long[count]ID、int[count+1]小写键偏移、int[count+1]英文偏移、
+     * 小写键的UTF-8字符串区、英文原文的UTF-8字符串区。读取都用绝对位置，多个线程可以同时查询
+     */
+    private static class MappedIndex {
+        final ByteBuffer buffer;
+        final int count;
+        final long maxId;
+        final int idsStart;
+        final int keyOffsetsStart;
+        final int englishOffsetsStart;
+        final int keyBlobStart;
+
+        private MappedIndex(ByteBuffer buffer, int count, long maxId) {
+            this.buffer = buffer;
+            this.count = count;
+            this.maxId = maxId;
+            this.idsStart = HEADER_SIZE;
+            this.keyOffsetsStart = idsStart + count * 8;
+            this.englishOffsetsStart = keyOffsetsStart + (count + 1) * 4;
+            this.keyBlobStart = englishOffsetsStart + (count + 1) * 4;
+        }
+
+        /**
+         * 打开并校验索引文件，文件不存在或格式不对时返回null
+         */
+        static MappedIndex open(File file) {
+            if (!file.exists()) {
+                return null;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel()) {
+                // 映射在通道关闭后仍然有效
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                    return null;
+                }
+                int count = buffer.getInt(8);
+                if (count < 0 || HEADER_SIZE + count * 16L + 8 > buffer.capacity()) {
+                    return null;
+                }
+                MappedIndex index = new MappedIndex(buffer, count, buffer.getLong(12));
+                if (index.keyOffset(count) < 0
+                        || (long) index.englishBlobStart() + index.englishOffset(count) != buffer.capacity()) {
+                    return null;
+                }
+                return index;
+            } catch (IOException e) {
+                Log.w(TAG, "open index file failed", e);
+                return null;
+            }
+        }
+
+        long id(int i) {
+            return buffer.getLong(idsStart + i * 8);
+        }
+
+        private int keyOffset(int i) {
+            return buffer.getInt(keyOffsetsStart + i * 4);
+        }
+
+        private int englishOffset(int i) {
+            return buffer.getInt(englishOffsetsStart + i * 4);
+        }
+
+        private int englishBlobStart() {
+            return keyBlobStart + keyOffset(count);
+        }
+
+        String english(int i) {
+            int start = englishBlobStart() + englishOffset(i);
+            byte[] bytes = new byte[englishBlobStart() + englishOffset(i + 1) - start];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = buffer.get(start + j);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // 第i条的小写键与key按无符号字节比较
+        private int compareKey(int i, byte[] key) {
+            int start = keyBlobStart + keyOffset(i);
+            int length = keyOffset(i + 1) - keyOffset(i);
+            int shorter = Math.min(length, key.length);
+            for (int j = 0; j < shorter; j++) {
+                int result = Integer.compare(buffer.get(start + j) & 0xff, key[j] & 0xff);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        /**
+         * 与增量表的条目比较，规则同PrefixIndex.compare
+         */
+        int compareTo(int i, Entry entry) {
+            int result = compareKey(i, entry.keyBytes);
+            return result != 0 ? result : Long.compare(id(i), entry.id);
+        }
+
+        boolean keyStartsWith(int i, byte[] prefix) {
+            int start = keyBlobStart + keyOffset(i);
+            if (keyOffset(i + 1) - keyOffset(i) < prefix.length) {
+                return false;
+            }
+            for (int j = 0; j < prefix.length; j++) {
+                if (buffer.get(start + j) != prefix[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void copyKey(int i, ByteArrayOutputStream out) {
+            copy(keyBlobStart + keyOffset(i), keyOffset(i + 1) - keyOffset(i), out);
+        }
+
+        void copyEnglish(int i, ByteArrayOutputStream out) {
+            copy(englishBlobStart() + englishOffset(i), englishOffset(i + 1) - englishOffset(i), out);
+        }
+
+        private void copy(int start, int length, ByteArrayOutputStream out) {
+            for (int j = 0; j < length; j++) {
+                out.write(buffer.get(start + j));
+            }
+        }
+
+        /**
+         * 第一个小写键不小于key的位置
+         */
+        int lowerBound(byte[] key) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKey(mid, key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
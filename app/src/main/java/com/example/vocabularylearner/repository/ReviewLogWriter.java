@@ -0,0 +1,129 @@
+package com.example.vocabularylearner.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.ReviewLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复习记录的批量追加：回答时只在内存中排队，攒够一批或短暂延迟后在自己的线程上一个事务写入，
+ * 与单词表的复习状态更新分开，不占用复习流程的写库线程。
+ * 写入后每天最多一次把保留期之前的记录汇总进复习统计表并删除，记录表的大小与使用时长无关。
+ * 记录只用于统计分析，进程被杀时丢失最后一批可以接受，因此不像熟悉度那样写日志
+ */
+class ReviewLogWriter {
+    private static final String TAG = "ReviewLogWriter";
+    private static final String PREFS_NAME = "review_log";
+    private static final String KEY_LAST_COMPACTED_AT = "last_compacted_at";
+    // 攒够多少条写一次库、最后一条记录后多久写库
+    private static final int BATCH_SIZE = 50;
+    private static final long FLUSH_DELAY_MS = 5000;
+    // 原始记录保留的天数、两次汇总的最小间隔
+    private static final long RETAIN_MS = TimeUnit.DAYS.toMillis(30);
+    private static final long COMPACT_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final WordDbHelper dbHelper;
+    private final SharedPreferences prefs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<ReviewLog> pending = new ArrayList<>();
+    // 保证同一时间只有一次写库，discard等正在进行的写库结束
+    private final Object flushLock = new Object();
+    private ScheduledFuture<?> scheduledFlush;
+
+    ReviewLogWriter(Context context, WordDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    synchronized void append(ReviewLog log) {
+        pending.add(log);
+        scheduleFlush(pending.size() >= BATCH_SIZE ? 0 : FLUSH_DELAY_MS);
+    }
+
+    /**
+     * 尽快在后台写库（页面暂停时调用）
+     */
+    synchronized void flushSoon() {
+        if (!pending.isEmpty()) {
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * 丢弃所有未写入的记录（清空数据时调用，在后台线程调用）：
+     * 先等正在进行的写库结束，再取消已安排的写库，避免旧记录在清空后被写回
+     */
+    void discard() {
+        synchronized (flushLock) {
+            synchronized (this) {
+                pending.clear();
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+            }
+        }
+    }
+
+    // 在写库线程上执行
+    private void flush() {
+        synchronized (flushLock) {
+            List<ReviewLog> logs;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                logs = new ArrayList<>(pending);
+                pending.clear();
+            }
+
+            try {
+                dbHelper.insertReviewLogs(logs);
+            } catch (RuntimeException e) {
+                // 写库失败时放回队列，稍后重试
+                Log.e(TAG, "flush failed", e);
+                synchronized (this) {
+                    pending.addAll(0, logs);
+                    scheduleFlush(FLUSH_DELAY_MS);
+                }
+                return;
+            }
+            compactIfDue();
+        }
+    }
+
+    private void compactIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - prefs.getLong(KEY_LAST_COMPACTED_AT, 0) < COMPACT_INTERVAL_MS) {
+            return;
+        }
+        try {
+            int compacted = dbHelper.compactReviewLog(now - RETAIN_MS);
+            Log.d(TAG, "compacted " + compacted + " review log rows");
+        } catch (RuntimeException e) {
+            Log.e(TAG, "compact failed", e);
+            return;
+        }
+        prefs.edit().putLong(KEY_LAST_COMPACTED_AT, now).apply();
+    }
+
+    // 调用方需持有this锁
+    private void scheduleFlush(long delayMs) {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) {
+            if (delayMs > 0) {
+                return; // 已经安排过，合并到那一次
+            }
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = scheduler.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+}
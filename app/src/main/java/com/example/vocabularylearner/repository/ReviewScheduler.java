@@ -0,0 +1,84 @@
+package com.example.vocabularylearner.repository;
+
+import com.example.vocabularylearner.entity.ReviewState;
+
+/**
+ * 间隔重复调度（SM-2的变体，评分分四档）：根据回答的评分更新单词的难度系数、复习间隔和下次复习时间。
+ * 只做计算，不访问数据库
+ */
+public final class ReviewScheduler {
+    // 评分：忘记、困难、良好、简单
+    public static final int GRADE_AGAIN = 1;
+    public static final int GRADE_HARD = 2;
+    public static final int GRADE_GOOD = 3;
+    public static final int GRADE_EASY = 4;
+
+    private static final double MIN_EASE = 1.3;
+    private static final double AGAIN_EASE_PENALTY = 0.2;
+    private static final double EASE_STEP = 0.15;
+    private static final double HARD_FACTOR = 1.2;
+    private static final double EASY_BONUS = 1.3;
+    private static final int MAX_INTERVAL_DAYS = 36500;
+    // 忘记的单词在本次学习中稍后再出现
+    private static final long RELEARN_DELAY_MILLIS = 10L * 60 * 1000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private ReviewScheduler() {
+    }
+
+    /**
+     * 按评分更新复习状态，now为回答时间（毫秒）
+     */
+    public static void apply(ReviewState state, int grade, long now) {
+        if (grade < GRADE_AGAIN || grade > GRADE_EASY) {
+            throw new IllegalArgumentException("无效的评分: " + grade);
+        }
+
+        if (grade == GRADE_AGAIN) {
+            // 学会过的单词才算忘记
+            if (state.getReps() > 0 || state.getIntervalDays() > 0) {
+                state.setLapses(state.getLapses() + 1);
+            }
+            state.setReps(0);
+            state.setIntervalDays(0);
+            state.setEase(Math.max(MIN_EASE, state.getEase() - AGAIN_EASE_PENALTY));
+            state.setDueAt(now + RELEARN_DELAY_MILLIS);
+            return;
+        }
+
+        int reps = state.getReps() + 1;
+        double ease = state.getEase();
+        int interval;
+        if (state.getIntervalDays() == 0) {
+            // 还没有学会的间隔（新单词或刚忘记的）：固定的第一步
+            interval = grade == GRADE_EASY ? 4 : 1;
+        } else {
+            double factor;
+            if (grade == GRADE_HARD) {
+                factor = HARD_FACTOR;
+            } else if (grade == GRADE_EASY) {
+                factor = ease * EASY_BONUS;
+            } else {
+                factor = ease;
+            }
+            // 从当前间隔增长，至少增加一天
+            interval = (int) Math.min(MAX_INTERVAL_DAYS,
+                    Math.max(state.getIntervalDays() + 1, Math.round(state.getIntervalDays() * factor)));
+            if (reps == 2) {
+                // 第二次答对至少隔6天（困难3天）；标记为熟悉的单词已有更长的间隔，不会被缩短
+                interval = Math.max(interval, grade == GRADE_HARD ? 3 : 6);
+            }
+        }
+
+        if (grade == GRADE_HARD) {
+            ease = Math.max(MIN_EASE, ease - EASE_STEP);
+        } else if (grade == GRADE_EASY) {
+            ease += EASE_STEP;
+        }
+
+        state.setReps(reps);
+        state.setEase(ease);
+        state.setIntervalDays(Math.min(MAX_INTERVAL_DAYS, interval));
+        state.setDueAt(now + Math.min(MAX_INTERVAL_DAYS, interval) * DAY_MILLIS);
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.vocabularylearner.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import com.example.vocabularylearner.entity.ReviewState;
+import com.example.vocabularylearner.entity.Word;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 一次复习：开始时把到期单词一次性读入按到期时间排序的最小堆（ID和到期时间各用一个long数组，不持有Word对象），
+ * 新单词按添加顺序排在另一个数组里，每复习若干个到期单词插入一个新单词。
+ * 切换卡片时不查库：当前卡片显示期间在后台预取下一张卡片的单词和复习状态，
+ * 回答只在内存中计算新的复习状态，攒够一批再在后台一个事务写库。
+ * 除构造方法外的公开方法都在主线程调用，回调也在主线程
+ */
+public class ReviewSession {
+    private static final String TAG = "ReviewSession";
+    // 攒够多少个回答写一次库
+    private static final int PERSIST_BATCH_SIZE = 10;
+
+    private final WordRepository repository;
+    private final int dueLimit;
+    private final int newLimit;
+    private final int dueCardsPerNew;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DueHeap dueHeap;
+    private long[] newIds;
+    private int newPosition;
+    // 上一个新单词之后已经出了几个到期单词
+    private int dueSinceNew;
+
+    private Listener listener;
+    private Card current;
+    // 当前卡片显示的时刻，用于计算回答用时
+    private long shownAt;
+    private long prefetchId = -1;
+    private Card prefetched;
+    // 等待预取完成后再显示的卡片ID
+    private long waitingId = -1;
+    private int reviewedCount;
+    private boolean closed;
+
+    // 还没写库的回答：主线程加入，写库线程取走；同一单词再次出现时以这里的状态为准
+    private final Map<Long, ReviewState> unsavedStates = new HashMap<>();
+    private final List<ReviewState> batch = new ArrayList<>();
+
+    /**
+     * 复习回调（主线程）
+     */
+    public interface Listener {
+        // 显示一张卡片，remaining为包括这张在内还剩的卡片数
+        void onCard(Word word, boolean isNew, int remaining);
+
+        // 所有卡片都复习完了
+        void onFinished(int reviewedCount);
+    }
+
+    /**
+     * 一张卡片：单词详情和回答前的复习状态
+     */
+    private static final class Card {
+        final Word word;
+        final ReviewState state;
+        final boolean isNew;
+
+        Card(Word word, ReviewState state, boolean isNew) {
+            this.word = word;
+            this.state = state;
+            this.isNew = isNew;
+        }
+    }
+
+    /**
+     * @param dueLimit       最多复习多少个到期单词
+     * @param newLimit       最多学习多少个新单词
+     * @param dueCardsPerNew 每复习几个到期单词插入一个新单词（到期单词复习完后新单词连续出现）
+     */
+    public ReviewSession(WordRepository repository, int dueLimit, int newLimit, int dueCardsPerNew) {
+        this.repository = repository;
+        this.dueLimit = dueLimit;
+        this.newLimit = newLimit;
+        this.dueCardsPerNew = Math.max(1, dueCardsPerNew);
+    }
+
+    /**
+     * 在后台读取复习队列，然后显示第一张卡片
+     */
+    public void start(Listener listener) {
+        this.listener = listener;
+        executor.execute(() -> {
+            long[] ids = new long[dueLimit];
+            long[] dueAts = new long[dueLimit];
+            int dueCount = repository.getDueWords(ids, dueAts);
+            long[] newWordIds = repository.getNewWordIds(newLimit);
+            mainHandler.post(() -> {
+                if (closed) {
+                    return;
+                }
+                dueHeap = new DueHeap(ids, dueAts, dueCount);
+                newIds = newWordIds;
+                showNext();
+            });
+        });
+    }
+
+    /**
+     * 回答当前卡片（评分见ReviewScheduler）：在内存中重新安排复习，忘记的单词稍后在本次复习中再出现，
+     * 然后立即显示已预取的下一张卡片
+     */
+    public void answer(int grade) {
+        if (current == null) {
+            return;
+        }
+        Trace.beginSection("ReviewSession.answer");
+        try {
+            long now = System.currentTimeMillis();
+            ReviewState state = current.state;
+            ReviewScheduler.apply(state, grade, now);
+            if (grade == ReviewScheduler.GRADE_AGAIN) {
+                dueHeap.push(state.getWordId(), state.getDueAt());
+            }
+            reviewedCount++;
+            current = null;
+            repository.logReview(state.getWordId(), grade, SystemClock.elapsedRealtime() - shownAt);
+
+            synchronized (unsavedStates) {
+                unsavedStates.put(state.getWordId(), state);
+            }
+            batch.add(state);
+            if (batch.size() >= PERSIST_BATCH_SIZE) {
+                flush();
+            }
+            showNext();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 在后台写入还没写库的回答（页面暂停时调用）
+     */
+    public void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ReviewState> states = new ArrayList<>(batch);
+        batch.clear();
+        executor.execute(() -> {
+            try {
+                repository.saveReviewStates(states);
+            } catch (RuntimeException e) {
+                // 没写成功的状态留在unsavedStates里，本次复习中仍以内存状态为准
+                Log.e(TAG, "save reviews failed", e);
+                return;
+            }
+            synchronized (unsavedStates) {
+                for (ReviewState state : states) {
+                    // 写库期间又被回答过的单词保留最新状态
+                    if (unsavedStates.get(state.getWordId()) == state) {
+                        unsavedStates.remove(state.getWordId());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 结束复习：写入剩余的回答，之后不再回调（页面销毁时调用）
+     */
+    public void close() {
+        flush();
+        closed = true;
+        current = null;
+        listener = null;
+        executor.shutdown();
+    }
+
+    // 取出下一张卡片：预取好了直接显示，否则等预取完成
+    private void showNext() {
+        boolean[] isNew = new boolean[1];
+        long id = nextId(System.currentTimeMillis(), true, isNew);
+        if (id == -1) {
+            flush();
+            listener.onFinished(reviewedCount);
+            return;
+        }
+
+        if (id == prefetchId && prefetched != null) {
+            present(prefetched);
+        } else {
+            waitingId = id;
+            if (id != prefetchId) {
+                load(id, isNew[0]);
+            }
+        }
+    }
+
+    private void present(Card card) {
+        waitingId = -1;
+        prefetchId = -1;
+        prefetched = null;
+        current = card;
+        shownAt = SystemClock.elapsedRealtime();
+        int remaining = dueHeap.size() + newIds.length - newPosition + 1;
+        listener.onCard(card.word, card.isNew, remaining);
+
+        // 趁用户看当前卡片时预取下一张
+        boolean[] isNew = new boolean[1];
+        long nextId = nextId(System.currentTimeMillis(), false, isNew);
+        if (nextId != -1) {
+            load(nextId, isNew[0]);
+        }
+    }
+
+    // 在后台读取单词和复习状态，完成后如果正等着这张卡片就显示
+    private void load(long id, boolean isNew) {
+        prefetchId = id;
+        prefetched = null;
+        executor.execute(() -> {
+            Word word = repository.getWord(id);
+            ReviewState state;
+            synchronized (unsavedStates) {
+                // 复制一份：回答时在主线程修改，原对象可能正在写库
+                ReviewState unsaved = unsavedStates.get(id);
+                state = unsaved != null ? new ReviewState(unsaved) : null;
+            }
+            if (state == null) {
+                state = repository.getReviewState(id);
+            }
+            Card card = word != null && state != null ? new Card(word, state, isNew) : null;
+            mainHandler.post(() -> onLoaded(id, card));
+        });
+    }
+
+    private void onLoaded(long id, Card card) {
+        if (closed || id != prefetchId) {
+            return; // 已经被更新的预取取代
+        }
+        if (card == null) {
+            // 单词已被删除，跳过
+            prefetchId = -1;
+            if (waitingId == id) {
+                showNext();
+            }
+            return;
+        }
+        prefetched = card;
+        if (waitingId == id) {
+            present(card);
+        }
+    }
+
+    /**
+     * 按穿插比例选下一张卡片，remove为false时只查看不取出。
+     * 到期单词都复习完（或剩下的是本次忘记、还没到时间的单词）时先出新单词，新单词也出完后提前复习忘记的单词
+     */
+    private long nextId(long now, boolean remove, boolean[] isNew) {
+        boolean hasNew = newPosition < newIds.length;
+        boolean dueReady = !dueHeap.isEmpty() && dueHeap.peekDueAt() <= now;
+        if (hasNew && (!dueReady || dueSinceNew >= dueCardsPerNew)) {
+            isNew[0] = true;
+            long id = newIds[newPosition];
+            if (remove) {
+                newPosition++;
+                dueSinceNew = 0;
+            }
+            return id;
+        }
+        if (dueHeap.isEmpty()) {
+            return -1;
+        }
+        isNew[0] = false;
+        long id = dueHeap.peekId();
+        if (remove) {
+            dueHeap.pop();
+            dueSinceNew++;
+        }
+        return id;
+    }
+
+    /**
+     * 按到期时间排序的最小堆，ID和到期时间存在两个并行的数组里
+     */
+    static final class DueHeap {
+        private long[] ids;
+        private long[] dueAts;
+        private int size;
+
+        // 数组已按到期时间升序，本身就满足堆的性质，不需要再建堆
+        DueHeap(long[] sortedIds, long[] sortedDueAts, int size) {
+            this.ids = sortedIds;
+            this.dueAts = sortedDueAts;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peekId() {
+            return ids[0];
+        }
+
+        long peekDueAt() {
+            return dueAts[0];
+        }
+
+        void push(long id, long dueAt) {
+            if (size == ids.length) {
+                int capacity = Math.max(16, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                dueAts = Arrays.copyOf(dueAts, capacity);
+            }
+            int i = size++;
+            // 上浮
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (dueAts[parent] <= dueAt) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                dueAts[i] = dueAts[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            dueAts[i] = dueAt;
+        }
+
+        void pop() {
+            size--;
+            if (size == 0) {
+                return;
+            }
+            long id = ids[size];
+            long dueAt = dueAts[size];
+            int i = 0;
+            // 下沉
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && dueAts[child + 1] < dueAts[child]) {
+                    child++;
+                }
+                if (dueAt <= dueAts[child]) {
+                    break;
+                }
+                ids[i] = ids[child];
+                dueAts[i] = dueAts[child];
+                i = child;
+            }
+            ids[i] = id;
+            dueAts[i] = dueAt;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.vocabularylearner.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.LetterStats;
+import com.example.vocabularylearner.entity.QuizQuestion;
+import com.example.vocabularylearner.entity.ReviewLog;
+import com.example.vocabularylearner.entity.ReviewState;
+import com.example.vocabularylearner.entity.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 单词仓库：在WordDbHelper之上提供进程内共享的缓存，并向各页面发布数据变化事件。
+ * 读取方法可能访问数据库，请在后台线程调用；写入方法先更新缓存并发布事件，再交给延迟写入缓冲合并写库，
+ * 可以在主线程调用。事件总是在主线程回调
+ */
+public class WordRepository {
+    private static final String TAG = "WordRepository";
+    // 缓存容量：详情单词按条数，列表首页按“字母+熟悉度”
+    private static final int WORD_CACHE_SIZE = 500;
+    private static final int PAGE_CACHE_SIZE = 52;
+    // 拼写容错：不超过这个长度的输入只容许1处编辑，更长的容许2处
+    private static final int SHORT_QUERY_LENGTH = 4;
+    // 导出时每次从数据库读取的单词数
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    // 选择题：干扰项个数、从多少个最相似的候选中挑选、找不到足够干扰项时最多换几个单词
+    private static final int QUIZ_DISTRACTORS = 3;
+    private static final int QUIZ_CANDIDATES = 8;
+    private static final int QUIZ_ATTEMPTS = 10;
+
+    private static volatile WordRepository instance;
+
+    private final WordDbHelper dbHelper;
+    private final LruCache<Long, Word> wordCache = new LruCache<>(WORD_CACHE_SIZE);
+    private final LruCache<String, List<Word>> firstPageCache = new LruCache<>(PAGE_CACHE_SIZE);
+    // 缓存中的统计对象交给调用方后不再修改，变化时换成新对象
+    private Map<String, LetterStats> letterStatsCache;
+    // 每次使缓存失效时加一：读库期间缓存被改过的结果不再放回缓存
+    private int cacheGeneration;
+    private final List<WordChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final WordWriteBuffer writeBuffer;
+    private final ReviewLogWriter reviewLogWriter;
+    private final PrefixIndex prefixIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final DistractorIndex distractorIndex;
+
+    /**
+     * 数据变化监听器
+     */
+    public interface WordChangeListener {
+        // 单个单词的熟悉度或收藏状态变化
+        void onWordChanged(Word word);
+
+        // 批量变化（导入、清空），需要重新加载
+        void onWordsReloaded();
+    }
+
+    public static WordRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (WordRepository.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    instance = new WordRepository(appContext, WordDbHelper.getInstance(appContext));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private WordRepository(Context context, WordDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.writeBuffer = new WordWriteBuffer(context, dbHelper);
+        this.reviewLogWriter = new ReviewLogWriter(context, dbHelper);
+        this.prefixIndex = new PrefixIndex(context, dbHelper);
+        this.fuzzyIndex = new FuzzyIndex(dbHelper::forEachHeadword);
+        this.distractorIndex = new DistractorIndex(dbHelper);
+        prefixIndex.refreshAsync();
+    }
+
+    public WordDbHelper getDbHelper() {
+        return dbHelper;
+    }
+
+    public void addListener(WordChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(WordChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 根据ID获取单词详情（含例句），未命中缓存时查库
+     */
+    public Word getWord(long id) {
+        Word word = wordCache.get(id);
+        if (word == null) {
+            writeBuffer.flushNow();
+            word = dbHelper.getWordById(id);
+            if (word != null) {
+                wordCache.put(id, word);
+            }
+        }
+        return word;
+    }
+
+    /**
+     * 分页获取单词，首页会被缓存
+     */
+    public List<Word> getWordPage(String letter, boolean isFamiliar, String afterEnglish, int limit) {
+        if (afterEnglish != null) {
+            writeBuffer.flushNow();
+            return dbHelper.getWordPage(letter, isFamiliar, afterEnglish, limit);
+        }
+
+        // 键中带上页大小，不同页大小的调用方互不影响
+        String key = pageKey(letter, isFamiliar) + ":" + limit;
+        List<Word> page = firstPageCache.get(key);
+        if (page == null) {
+            int generation = getCacheGeneration();
+            writeBuffer.flushNow();
+            page = dbHelper.getWordPage(letter, isFamiliar, null, limit);
+            synchronized (this) {
+                if (generation == cacheGeneration) {
+                    firstPageCache.put(key, page);
+                }
+            }
+        }
+        return new ArrayList<>(page);
+    }
+
+    /**
+     * 搜索单词（全文检索，结果不缓存）
+     */
+    public List<Word> search(String query, int offset, int limit) {
+        writeBuffer.flushNow();
+        return dbHelper.searchWords(query, offset, limit);
+    }
+
+    /**
+     * 拼写容错搜索：返回与输入的英文编辑距离在1~2以内的单词，越接近越靠前（结果不缓存）。
+     * 第一次调用时构建索引
+     */
+    public List<Word> searchFuzzy(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int maxDistance = trimmed.length() <= SHORT_QUERY_LENGTH ? 1 : 2;
+        List<Long> ids = new ArrayList<>();
+        for (FuzzyIndex.Match match : fuzzyIndex.search(trimmed, maxDistance, limit)) {
+            ids.add(match.id);
+        }
+        writeBuffer.flushNow();
+        return dbHelper.getWordsByIds(ids);
+    }
+
+    /**
+     * 输入联想：按英文前缀查内存索引，不访问数据库，可以在主线程调用。
+     * 返回的单词只有ID和英文
+     */
+    public List<Word> suggest(String prefix, int limit) {
+        return prefixIndex.lookup(prefix, limit);
+    }
+
+    /**
+     * 在后台预先构建选择题的干扰项索引（进入测验页时调用）
+     */
+    public void prepareQuiz() {
+        distractorIndex.buildAsync();
+    }
+
+    /**
+     * 随机出一道选择题：干扰项从拼写相似的单词中挑选，释义为空或与答案相同的跳过。
+     * 只按ID读取题目单词和几个候选（访问数据库，请在后台线程调用）。单词不足四个时返回null
+     */
+    public QuizQuestion createQuizQuestion(Random random) {
+        writeBuffer.flushNow();
+        for (int attempt = 0; attempt < QUIZ_ATTEMPTS; attempt++) {
+            long id = distractorIndex.randomId(random);
+            if (id == -1) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>();
+            ids.add(id);
+            for (long candidate : distractorIndex.candidates(id, QUIZ_CANDIDATES)) {
+                ids.add(candidate);
+            }
+            List<Word> words = dbHelper.getWordsByIds(ids);
+            if (words.isEmpty() || words.get(0).getId() != id || isBlank(words.get(0).getChinese())) {
+                continue;
+            }
+
+            Word word = words.get(0);
+            List<String> meanings = new ArrayList<>();
+            for (Word candidate : words.subList(1, words.size())) {
+                String chinese = candidate.getChinese();
+                if (!isBlank(chinese) && !chinese.equals(word.getChinese()) && !meanings.contains(chinese)) {
+                    meanings.add(chinese);
+                }
+            }
+            if (meanings.size() < QUIZ_DISTRACTORS) {
+                continue;
+            }
+
+            // 从相似的候选中随机挑几个，同一个单词每次的干扰项不完全相同
+            Collections.shuffle(meanings, random);
+            List<String> choices = new ArrayList<>(meanings.subList(0, QUIZ_DISTRACTORS));
+            int answerIndex = random.nextInt(QUIZ_DISTRACTORS + 1);
+            choices.add(answerIndex, word.getChinese());
+            return new QuizQuestion(word, choices, answerIndex);
+        }
+        return null;
+    }
+
+    /**
+     * 导出用：先写入缓冲中的修改，再按字母顺序分页遍历全部单词（访问数据库，请在后台线程调用）
+     */
+    public Iterator<Word> iterateAllWords() {
+        writeBuffer.flushNow();
+        return dbHelper.iterateAllWords(EXPORT_PAGE_SIZE);
+    }
+
+    /**
+     * 单词总数（访问数据库，请在后台线程调用）
+     */
+    public int getWordCount() {
+        return dbHelper.getWordCount();
+    }
+
+    /**
+     * 获取所有字母的统计信息
+     */
+    public Map<String, LetterStats> getAllLetterStats() {
+        int generation;
+        synchronized (this) {
+            if (letterStatsCache != null) {
+                return Collections.unmodifiableMap(new HashMap<>(letterStatsCache));
+            }
+            generation = cacheGeneration;
+        }
+        // 写库和读库不持有锁，主线程上的setFamiliar、setFavorite不会等待磁盘
+        writeBuffer.flushNow();
+        Map<String, LetterStats> stats = dbHelper.getAllLetterStats();
+        synchronized (this) {
+            if (generation == cacheGeneration) {
+                letterStatsCache = stats;
+            }
+        }
+        return Collections.unmodifiableMap(new HashMap<>(stats));
+    }
+
+    /**
+     * 修改单词熟悉度：立即更新缓存并通知各页面，写库由缓冲合并
+     */
+    public void setFamiliar(Word word, boolean isFamiliar) {
+        boolean changed = applyFamiliar(word, null, isFamiliar);
+        writeBuffer.setFamiliar(word.getId(), isFamiliar);
+        if (changed) {
+            publishWordChanged(word);
+        }
+    }
+
+    /**
+     * 复习队列：到期单词的ID和到期时间按到期时间升序填入两个数组，返回个数（访问数据库，请在后台线程调用）
+     */
+    public int getDueWords(long[] ids, long[] dueAts) {
+        writeBuffer.flushNow();
+        return dbHelper.getDueWords(System.currentTimeMillis(), ids, dueAts);
+    }
+
+    /**
+     * 从未复习过的新单词ID，按添加顺序（访问数据库，请在后台线程调用）
+     */
+    public long[] getNewWordIds(int limit) {
+        writeBuffer.flushNow();
+        return dbHelper.getNewWordIds(limit);
+    }
+
+    /**
+     * 当前已到期的单词数（访问数据库，请在后台线程调用）
+     */
+    public int getDueCount() {
+        writeBuffer.flushNow();
+        return dbHelper.getDueCount(System.currentTimeMillis());
+    }
+
+    /**
+     * 记录一次复习回答：按评分重新安排复习并写库，熟悉度随复习间隔变化时更新缓存并通知各页面
+     * （访问数据库，请在后台线程调用）。单词不存在时返回null
+     */
+    public ReviewState review(long wordId, int grade) {
+        ReviewState state = getReviewState(wordId);
+        if (state == null) {
+            return null;
+        }
+        ReviewScheduler.apply(state, grade, System.currentTimeMillis());
+        saveReviewStates(Collections.singletonList(state));
+        return state;
+    }
+
+    /**
+     * 获取单词的复习状态，单词不存在时返回null（访问数据库，请在后台线程调用）
+     */
+    public ReviewState getReviewState(long wordId) {
+        // 熟悉度的修改会经触发器改变复习状态
+        writeBuffer.flushNow();
+        return dbHelper.getReviewState(wordId);
+    }
+
+    /**
+     * 在一个事务中写入多条复习结果，熟悉度随复习间隔变化的单词更新缓存并通知各页面
+     * （访问数据库，请在后台线程调用）
+     */
+    public void saveReviewStates(List<ReviewState> states) {
+        writeBuffer.flushNow();
+        // 先取单词和写库前的熟悉度，再写库
+        List<Word> words = new ArrayList<>(states.size());
+        boolean[] wasFamiliar = new boolean[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            Word word = getWord(states.get(i).getWordId());
+            words.add(word);
+            wasFamiliar[i] = word != null && word.isFamiliar();
+        }
+        dbHelper.updateReviewStates(states);
+
+        for (int i = 0; i < states.size(); i++) {
+            Word word = words.get(i);
+            if (word != null && applyFamiliar(word, wasFamiliar[i], WordDbHelper.isFamiliar(states.get(i)))) {
+                publishWordChanged(word);
+            }
+        }
+    }
+
+    /**
+     * 追加一条复习记录：只在内存中排队，批量写库（可以在主线程调用）
+     */
+    public void logReview(long wordId, int grade, long responseMs) {
+        reviewLogWriter.append(new ReviewLog(wordId, System.currentTimeMillis(), grade, responseMs));
+    }
+
+    /**
+     * 修改单词收藏状态：立即更新缓存并通知各页面，写库由缓冲合并
+     */
+    public void setFavorite(Word word, boolean isFavorite) {
+        synchronized (this) {
+            Word cached = wordCache.get(word.getId());
+            if (cached != null) {
+                cached.setFavorite(isFavorite);
+            }
+            word.setFavorite(isFavorite);
+            // 收藏数只有统计表里有，下次读取时重新加载（统计表只有26行）
+            letterStatsCache = null;
+            cacheGeneration++;
+        }
+        writeBuffer.setFavorite(word.getId(), isFavorite);
+        publishWordChanged(word);
+    }
+
+    /**
+     * 清空所有单词（访问数据库，请在后台线程调用）
+     */
+    public void clearAllData() {
+        writeBuffer.discard();
+        reviewLogWriter.discard();
+        dbHelper.clearAllData();
+        prefixIndex.clear();
+        fuzzyIndex.clear();
+        distractorIndex.clear();
+        notifyWordsReloaded();
+    }
+
+    /**
+     * 页面暂停时调用：尽快把缓冲中的修改写库
+     */
+    public void flushPendingWrites() {
+        writeBuffer.flushSoon();
+        reviewLogWriter.flushSoon();
+    }
+
+    /**
+     * 批量写入（导入）完成后调用：核对字母统计，丢弃缓存并通知各页面重新加载（访问数据库，请在后台线程调用）
+     */
+    public void notifyWordsReloaded() {
+        // 批量写入后顺便核对触发器维护的计数，有偏差时从单词表重算，页面随后读到的就是修复后的统计
+        if (!dbHelper.verifyLetterStats()) {
+            Log.w(TAG, "letter stats out of sync, rebuilding");
+            dbHelper.rebuildLetterStats();
+        }
+        invalidateAll();
+        // 前缀索引只需补上新增的单词
+        prefixIndex.refreshAsync();
+        dispatch(() -> {
+            for (WordChangeListener listener : listeners) {
+                listener.onWordsReloaded();
+            }
+        });
+    }
+
+    /**
+     * 更新缓存中的熟悉度和字母统计，返回熟悉度是否（可能）变化。
+     * knownWasFamiliar为调用方在写库前读到的熟悉度，为null时以缓存中的详情单词为准；
+     * 两者都没有时不猜测，丢弃字母统计缓存等下次重新加载
+     */
+    private synchronized boolean applyFamiliar(Word word, Boolean knownWasFamiliar, boolean isFamiliar) {
+        Word cached = wordCache.get(word.getId());
+        // 列表页传入的对象可能已被修改，不能用它判断是否变化
+        Boolean wasFamiliar = knownWasFamiliar != null ? knownWasFamiliar
+                : cached != null ? Boolean.valueOf(cached.isFamiliar()) : null;
+        if (cached != null) {
+            cached.setFamiliar(isFamiliar);
+        }
+        word.setFamiliar(isFamiliar);
+        if (wasFamiliar != null && wasFamiliar == isFamiliar) {
+            return false;
+        }
+
+        String letter = firstLetter(word.getEnglish());
+        cacheGeneration++;
+        // 该字母两个标签页的首页都变了
+        String prefix = letter + ":";
+        for (String key : firstPageCache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                firstPageCache.remove(key);
+            }
+        }
+        if (wasFamiliar == null) {
+            letterStatsCache = null;
+        } else if (letterStatsCache != null) {
+            LetterStats stats = letterStatsCache.get(letter);
+            if (stats != null) {
+                // 换成新对象，已交给页面的统计不会在读取时被修改
+                LetterStats updated = new LetterStats(stats);
+                updated.setFamiliarCount(stats.getFamiliarCount() + (isFamiliar ? 1 : -1));
+                letterStatsCache.put(letter, updated);
+            }
+        }
+        return true;
+    }
+
+    private synchronized void invalidateAll() {
+        wordCache.evictAll();
+        firstPageCache.evictAll();
+        letterStatsCache = null;
+        cacheGeneration++;
+    }
+
+    private synchronized int getCacheGeneration() {
+        return cacheGeneration;
+    }
+
+    private void publishWordChanged(Word word) {
+        dispatch(() -> {
+            for (WordChangeListener listener : listeners) {
+                listener.onWordChanged(word);
+            }
+        });
+    }
+
+    // 在主线程回调监听器
+    private void dispatch(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mainHandler.post(runnable);
+        }
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    private static String pageKey(String letter, boolean isFamiliar) {
+        return letter.toUpperCase() + (isFamiliar ? ":1" : ":0");
+    }
+
+    private static String firstLetter(String english) {
+        if (english == null || english.isEmpty()) {
+            return "";
+        }
+        return english.substring(0, 1).toUpperCase();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.vocabularylearner.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熟悉度/收藏状态的延迟写入缓冲：同一个单词的多次切换只保留最后一次，
+ * 在短暂延迟后或页面暂停时一次性写入一个事务。
+ * 每次修改同时记入SharedPreferences日志，由缓冲自己的后台线程按修改顺序用commit同步落盘，
+ * 进程被杀后下次启动时重放日志，保证修改不丢失
+ */
+class WordWriteBuffer {
+    private static final String TAG = "WordWriteBuffer";
+    private static final String JOURNAL_NAME = "pending_word_writes";
+    private static final String KEY_FAMILIAR = "familiar_";
+    private static final String KEY_FAVORITE = "favorite_";
+    // 最后一次修改后多久写库
+    private static final long FLUSH_DELAY_MS = 1500;
+
+    private final WordDbHelper dbHelper;
+    private final SharedPreferences journal;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // 待写入的修改，键为单词ID
+    private final Map<Long, Boolean> pendingFamiliar = new HashMap<>();
+    private final Map<Long, Boolean> pendingFavorite = new HashMap<>();
+    // 保证同一时间只有一次写库
+    private final Object flushLock = new Object();
+    private ScheduledFuture<?> scheduledFlush;
+
+    WordWriteBuffer(Context context, WordDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.journal = context.getSharedPreferences(JOURNAL_NAME, Context.MODE_PRIVATE);
+        restoreJournal();
+    }
+
+    void setFamiliar(long wordId, boolean isFamiliar) {
+        synchronized (this) {
+            pendingFamiliar.put(wordId, isFamiliar);
+            commitJournal(journal.edit().putBoolean(KEY_FAMILIAR + wordId, isFamiliar));
+            scheduleFlush(FLUSH_DELAY_MS);
+        }
+    }
+
+    void setFavorite(long wordId, boolean isFavorite) {
+        synchronized (this) {
+            pendingFavorite.put(wordId, isFavorite);
+            commitJournal(journal.edit().putBoolean(KEY_FAVORITE + wordId, isFavorite));
+            scheduleFlush(FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * 尽快在后台写库（页面暂停时调用）
+     */
+    synchronized void flushSoon() {
+        if (!pendingFamiliar.isEmpty() || !pendingFavorite.isEmpty()) {
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * 在调用线程上立即写库（读库前调用，保证读到最新状态）
+     */
+    void flushNow() {
+        synchronized (flushLock) {
+            Map<Long, Boolean> familiar;
+            Map<Long, Boolean> favorite;
+            synchronized (this) {
+                if (pendingFamiliar.isEmpty() && pendingFavorite.isEmpty()) {
+                    return;
+                }
+                familiar = new HashMap<>(pendingFamiliar);
+                favorite = new HashMap<>(pendingFavorite);
+                pendingFamiliar.clear();
+                pendingFavorite.clear();
+            }
+
+            try {
+                dbHelper.updateWordStates(familiar, favorite);
+            } catch (RuntimeException e) {
+                // 写库失败时放回队列，日志仍在，稍后重试
+                Log.e(TAG, "flush failed", e);
+                synchronized (this) {
+                    for (Map.Entry<Long, Boolean> entry : familiar.entrySet()) {
+                        pendingFamiliar.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                    for (Map.Entry<Long, Boolean> entry : favorite.entrySet()) {
+                        pendingFavorite.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                    scheduleFlush(FLUSH_DELAY_MS);
+                }
+                return;
+            }
+
+            // 已写库的修改从日志中删除（写库期间又被修改的保留）
+            synchronized (this) {
+                SharedPreferences.Editor editor = journal.edit();
+                for (Long id : familiar.keySet()) {
+                    if (!pendingFamiliar.containsKey(id)) {
+                        editor.remove(KEY_FAMILIAR + id);
+                    }
+                }
+                for (Long id : favorite.keySet()) {
+                    if (!pendingFavorite.containsKey(id)) {
+                        editor.remove(KEY_FAVORITE + id);
+                    }
+                }
+                commitJournal(editor);
+            }
+        }
+    }
+
+    /**
+     * 丢弃所有未写入的修改（清空数据时调用，在后台线程调用）：
+     * 先等正在进行的写库结束，再取消已安排的写库，避免旧修改在清空后被写回
+     */
+    void discard() {
+        synchronized (flushLock) {
+            synchronized (this) {
+                pendingFamiliar.clear();
+                pendingFavorite.clear();
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                commitJournal(journal.edit().clear());
+            }
+        }
+    }
+
+    /**
+     * 待写入的熟悉度，没有则返回null
+     */
+    synchronized Boolean getPendingFamiliar(long wordId) {
+        return pendingFamiliar.get(wordId);
+    }
+
+    /**
+     * 待写入的收藏状态，没有则返回null
+     */
+    synchronized Boolean getPendingFavorite(long wordId) {
+        return pendingFavorite.get(wordId);
+    }
+
+    // 日志在缓冲的后台线程上按提交顺序用commit落盘，不阻塞调用线程
+    private void commitJournal(SharedPreferences.Editor editor) {
+        scheduler.execute(() -> {
+            if (!editor.commit()) {
+                Log.w(TAG, "journal commit failed");
+            }
+        });
+    }
+
+    // 调用方需持有this锁
+    private void scheduleFlush(long delayMs) {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) {
+            if (delayMs > 0) {
+                return; // 已经安排过，合并到那一次
+            }
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = scheduler.schedule(this::flushNow, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 重放上次进程退出前未写库的修改
+     */
+    private synchronized void restoreJournal() {
+        for (Map.Entry<String, ?> entry : journal.getAll().entrySet()) {
+            String key = entry.getKey();
+            if (!(entry.getValue() instanceof Boolean)) {
+                continue;
+            }
+            try {
+                if (key.startsWith(KEY_FAMILIAR)) {
+                    pendingFamiliar.put(Long.parseLong(key.substring(KEY_FAMILIAR.length())), (Boolean) entry.getValue());
+                } else if (key.startsWith(KEY_FAVORITE)) {
+                    pendingFavorite.put(Long.parseLong(key.substring(KEY_FAVORITE.length())), (Boolean) entry.getValue());
+                }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "ignore journal entry " + key);
+            }
+        }
+        if (!pendingFamiliar.isEmpty() || !pendingFavorite.isEmpty()) {
+            scheduleFlush(0);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.vocabularylearner.ui;
+
+import android.content.res.ColorStateList;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.core.content.ContextCompat;
+
+import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.entity.QuizQuestion;
+import com.example.vocabularylearner.repository.WordRepository;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 测验页：给出英文单词，从四个中文释义中选出正确的一个。
+ * 干扰项索引在进入页面时开始在后台构建；每道题显示时就在后台准备下一题，点“下一题”时通常不需要等待
+ */
+public class QuizActivity extends AppCompatActivity {
+    private static final int[] CHOICE_IDS = {R.id.btn_choice_0, R.id.btn_choice_1, R.id.btn_choice_2, R.id.btn_choice_3};
+
+    private View layoutQuiz;
+    private TextView tvScore, tvEnglish, tvPhonetic, tvEmpty;
+    private final Button[] btnChoices = new Button[CHOICE_IDS.length];
+    private Button btnNext;
+    private ColorStateList defaultTint;
+    private WordRepository repository;
+    private ExecutorService executorService;
+    private final Random random = new Random();
+
+    private QuizQuestion currentQuestion;
+    // 预先准备好的下一题，还在准备时为null
+    private QuizQuestion nextQuestion;
+    private boolean isPreparing;
+    private boolean isWaitingForNext;
+    private boolean isAnswered;
+    private int answeredCount;
+    private int correctCount;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_quiz);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        repository = WordRepository.getInstance(this);
+        executorService = Executors.newSingleThreadExecutor();
+
+        // 绑定控件
+        layoutQuiz = findViewById(R.id.layout_quiz);
+        tvScore = findViewById(R.id.tv_quiz_score);
+        tvEnglish = findViewById(R.id.tv_quiz_english);
+        tvPhonetic = findViewById(R.id.tv_quiz_phonetic);
+        tvEmpty = findViewById(R.id.tv_quiz_empty);
+        btnNext = findViewById(R.id.btn_quiz_next);
+        for (int i = 0; i < CHOICE_IDS.length; i++) {
+            int choice = i;
+            btnChoices[i] = findViewById(CHOICE_IDS[i]);
+            btnChoices[i].setOnClickListener(v -> onChoice(choice));
+        }
+        defaultTint = btnChoices[0].getBackgroundTintList();
+        btnNext.setOnClickListener(v -> showNextQuestion());
+
+        repository.prepareQuiz();
+        isWaitingForNext = true;
+        prepareNextQuestion();
+    }
+
+    // 在后台准备下一题，准备好时如果正在等待就直接显示
+    private void prepareNextQuestion() {
+        if (isPreparing) {
+            return;
+        }
+        isPreparing = true;
+        executorService.execute(() -> {
+            QuizQuestion question = repository.createQuizQuestion(random);
+            runOnUiThread(() -> {
+                isPreparing = false;
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                if (question == null) {
+                    layoutQuiz.setVisibility(View.GONE);
+                    tvEmpty.setVisibility(View.VISIBLE);
+                    return;
+                }
+                nextQuestion = question;
+                if (isWaitingForNext) {
+                    showNextQuestion();
+                }
+            });
+        });
+    }
+
+    private void showNextQuestion() {
+        if (nextQuestion == null) {
+            isWaitingForNext = true;
+            prepareNextQuestion();
+            return;
+        }
+        isWaitingForNext = false;
+        currentQuestion = nextQuestion;
+        nextQuestion = null;
+        isAnswered = false;
+
+        layoutQuiz.setVisibility(View.VISIBLE);
+        tvEnglish.setText(currentQuestion.getWord().getEnglish());
+        tvPhonetic.setText(currentQuestion.getWord().getPhonetic());
+        for (int i = 0; i < btnChoices.length; i++) {
+            btnChoices[i].setText(currentQuestion.getChoices().get(i));
+            btnChoices[i].setBackgroundTintList(defaultTint);
+        }
+        btnNext.setVisibility(View.INVISIBLE);
+        updateScore();
+
+        // 趁用户作答时准备下一题
+        prepareNextQuestion();
+    }
+
+    // 标出正确答案，选错时把所选的标红
+    private void onChoice(int choice) {
+        if (currentQuestion == null || isAnswered) {
+            return;
+        }
+        isAnswered = true;
+        answeredCount++;
+        int answer = currentQuestion.getAnswerIndex();
+        if (choice == answer) {
+            correctCount++;
+        } else {
+            btnChoices[choice].setBackgroundTintList(ColorStateList.valueOf(ContextCompat.getColor(this, R.color.red)));
+        }
+        btnChoices[answer].setBackgroundTintList(ColorStateList.valueOf(ContextCompat.getColor(this, R.color.green)));
+        btnNext.setVisibility(View.VISIBLE);
+        updateScore();
+    }
+
+    private void updateScore() {
+        tvScore.setText("答对 " + correctCount + " / " + answeredCount);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executorService.shutdown();
+    }
+}
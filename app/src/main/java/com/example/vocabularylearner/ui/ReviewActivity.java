@@ -0,0 +1,107 @@
+package com.example.vocabularylearner.ui;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.ReviewScheduler;
+import com.example.vocabularylearner.repository.ReviewSession;
+import com.example.vocabularylearner.repository.WordRepository;
+
+/**
+ * 复习页：按间隔重复的安排逐张显示到期单词，中间穿插新单词。
+ * 复习队列在进入页面时一次性读取，翻卡片和评分都不等待数据库
+ */
+public class ReviewActivity extends AppCompatActivity implements ReviewSession.Listener {
+    // 一次最多复习的到期单词数、新单词数，以及每几个到期单词插入一个新单词
+    private static final int DUE_LIMIT = 200;
+    private static final int NEW_LIMIT = 20;
+    private static final int DUE_CARDS_PER_NEW = 4;
+
+    private View layoutCard, layoutGrades;
+    private TextView tvRemaining, tvEnglish, tvPhonetic, tvChinese, tvExample, tvFinished;
+    private Button btnShowAnswer;
+    private ReviewSession session;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_review);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        // 绑定控件
+        layoutCard = findViewById(R.id.layout_review_card);
+        layoutGrades = findViewById(R.id.layout_review_grades);
+        tvRemaining = findViewById(R.id.tv_review_remaining);
+        tvEnglish = findViewById(R.id.tv_review_english);
+        tvPhonetic = findViewById(R.id.tv_review_phonetic);
+        tvChinese = findViewById(R.id.tv_review_chinese);
+        tvExample = findViewById(R.id.tv_review_example);
+        tvFinished = findViewById(R.id.tv_review_finished);
+        btnShowAnswer = findViewById(R.id.btn_show_answer);
+
+        btnShowAnswer.setOnClickListener(v -> showAnswer(true));
+        findViewById(R.id.btn_grade_again).setOnClickListener(v -> session.answer(ReviewScheduler.GRADE_AGAIN));
+        findViewById(R.id.btn_grade_hard).setOnClickListener(v -> session.answer(ReviewScheduler.GRADE_HARD));
+        findViewById(R.id.btn_grade_good).setOnClickListener(v -> session.answer(ReviewScheduler.GRADE_GOOD));
+        findViewById(R.id.btn_grade_easy).setOnClickListener(v -> session.answer(ReviewScheduler.GRADE_EASY));
+
+        session = new ReviewSession(WordRepository.getInstance(this), DUE_LIMIT, NEW_LIMIT, DUE_CARDS_PER_NEW);
+        session.start(this);
+    }
+
+    @Override
+    public void onCard(Word word, boolean isNew, int remaining) {
+        layoutCard.setVisibility(View.VISIBLE);
+        tvRemaining.setText((isNew ? "新单词 · " : "") + "剩余 " + remaining);
+        tvEnglish.setText(word.getEnglish());
+        tvPhonetic.setText(word.getPhonetic());
+        tvChinese.setText(word.getChinese());
+        tvExample.setText(word.getExample());
+        showAnswer(false);
+    }
+
+    @Override
+    public void onFinished(int reviewedCount) {
+        layoutCard.setVisibility(View.GONE);
+        btnShowAnswer.setVisibility(View.GONE);
+        layoutGrades.setVisibility(View.GONE);
+        tvFinished.setVisibility(View.VISIBLE);
+        tvFinished.setText(reviewedCount == 0 ? "现在没有需要复习的单词" : "复习完成，本次共复习 " + reviewedCount + " 次");
+    }
+
+    // 显示或隐藏释义，评分按钮只在显示答案后出现
+    private void showAnswer(boolean show) {
+        int answerVisibility = show ? View.VISIBLE : View.INVISIBLE;
+        tvChinese.setVisibility(answerVisibility);
+        tvExample.setVisibility(answerVisibility);
+        btnShowAnswer.setVisibility(show ? View.GONE : View.VISIBLE);
+        layoutGrades.setVisibility(show ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 离开页面时写入已攒下的回答和复习记录
+        session.flush();
+        WordRepository.getInstance(this).flushPendingWrites();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        session.close();
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.vocabularylearner.ui;
+
+import android.content.Intent;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.appcompat.widget.Toolbar;
+import androidx.cursoradapter.widget.SimpleCursorAdapter;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.WordRepository;
+import com.example.vocabularylearner.ui.adapter.WordAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 搜索页：输入英文按前缀和例句检索，输入中文按释义检索，结果分页加载。
+ * 输入英文时同时从内存前缀索引给出联想，不等待数据库查询；没有匹配时按拼写相近的单词给出建议
+ */
+public class SearchActivity extends AppCompatActivity implements WordRepository.WordChangeListener {
+    // 每页结果数、距离末尾多少项时加载下一页、输入停顿多久后开始搜索
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15;
+    private static final long SEARCH_DELAY_MS = 150;
+    private static final int SUGGESTION_LIMIT = 8;
+    private static final int FUZZY_LIMIT = 20;
+    // 联想列表的游标列
+    private static final String[] SUGGESTION_COLUMNS = {"_id", "english"};
+
+    private RecyclerView recyclerView;
+    private TextView tvEmpty;
+    private WordAdapter wordAdapter;
+    private SimpleCursorAdapter suggestionAdapter;
+    private WordRepository repository;
+    private ExecutorService executorService;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::search;
+
+    // 搜索状态：当前关键词、每次新搜索递增的序号（丢弃过期结果）、已加载条数
+    private String currentQuery = "";
+    private int searchGeneration;
+    private int loadedCount;
+    private boolean isLoading;
+    private boolean hasMore;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_search);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        repository = WordRepository.getInstance(this);
+        executorService = Executors.newSingleThreadExecutor();
+
+        tvEmpty = findViewById(R.id.tv_search_empty);
+        recyclerView = findViewById(R.id.recycler_view_search);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        createAdapter(new ArrayList<>());
+
+        // 滚动接近末尾时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) {
+                    return;
+                }
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= wordAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        SearchView searchView = findViewById(R.id.search_view);
+        searchView.setIconified(false);
+        suggestionAdapter = new SimpleCursorAdapter(this, android.R.layout.simple_list_item_1, null,
+                new String[]{"english"}, new int[]{android.R.id.text1}, 0);
+        searchView.setSuggestionsAdapter(suggestionAdapter);
+        searchView.setOnSuggestionListener(new SearchView.OnSuggestionListener() {
+            @Override
+            public boolean onSuggestionSelect(int position) {
+                return false;
+            }
+
+            @Override
+            public boolean onSuggestionClick(int position) {
+                Cursor cursor = suggestionAdapter.getCursor();
+                if (cursor != null && cursor.moveToPosition(position)) {
+                    openDetail(cursor.getLong(0));
+                }
+                return true;
+            }
+        });
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                scheduleSearch(query, 0);
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                showSuggestions(newText);
+                // 连续输入时只搜索最后一次
+                scheduleSearch(newText, SEARCH_DELAY_MS);
+                return true;
+            }
+        });
+
+        repository.addListener(this);
+    }
+
+    /**
+     * 按前缀联想（内存索引，直接在主线程查询）
+     */
+    private void showSuggestions(String text) {
+        MatrixCursor cursor = new MatrixCursor(SUGGESTION_COLUMNS);
+        for (Word word : repository.suggest(text, SUGGESTION_LIMIT)) {
+            cursor.addRow(new Object[]{word.getId(), word.getEnglish()});
+        }
+        suggestionAdapter.changeCursor(cursor);
+    }
+
+    private void scheduleSearch(String query, long delayMs) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.equals(currentQuery) && delayMs > 0) {
+            return;
+        }
+        currentQuery = trimmed;
+        handler.removeCallbacks(searchRunnable);
+        handler.postDelayed(searchRunnable, delayMs);
+    }
+
+    /**
+     * 从第一页开始搜索当前关键词
+     */
+    private void search() {
+        int generation = ++searchGeneration;
+        String query = currentQuery;
+        if (query.isEmpty()) {
+            isLoading = false;
+            hasMore = false;
+            showResults(new ArrayList<>(), query, false);
+            return;
+        }
+
+        isLoading = true;
+        executorService.execute(() -> {
+            List<Word> words = repository.search(query, 0, PAGE_SIZE);
+            // 没有匹配时可能是拼错了，改为拼写容错搜索（一次给出全部结果，不再分页）
+            boolean isFuzzy = words.isEmpty() && !containsCjk(query);
+            List<Word> results = isFuzzy ? repository.searchFuzzy(query, FUZZY_LIMIT) : words;
+
+            runOnUiThread(() -> {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                isLoading = false;
+                hasMore = !isFuzzy && results.size() == PAGE_SIZE;
+                showResults(results, query, isFuzzy);
+            });
+        });
+    }
+
+    /**
+     * 加载下一页并追加到列表
+     */
+    private void loadNextPage() {
+        if (isLoading || !hasMore) {
+            return;
+        }
+        isLoading = true;
+        int generation = searchGeneration;
+        String query = currentQuery;
+        int offset = loadedCount;
+        executorService.execute(() -> {
+            List<Word> words = repository.search(query, offset, PAGE_SIZE);
+
+            runOnUiThread(() -> {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                isLoading = false;
+                hasMore = words.size() == PAGE_SIZE;
+                loadedCount += words.size();
+                wordAdapter.appendWords(words);
+            });
+        });
+    }
+
+    private void showResults(List<Word> words, String query, boolean isFuzzy) {
+        loadedCount = words.size();
+        createAdapter(words);
+        if (isFuzzy && !words.isEmpty()) {
+            tvEmpty.setText("没有找到“" + query + "”，以下是拼写相近的单词");
+            tvEmpty.setVisibility(View.VISIBLE);
+        } else if (words.isEmpty() && !query.isEmpty()) {
+            tvEmpty.setText("没有找到“" + query + "”相关的单词");
+            tvEmpty.setVisibility(View.VISIBLE);
+        } else {
+            tvEmpty.setVisibility(View.GONE);
+        }
+    }
+
+    // 新的搜索结果直接换一个适配器，不与旧结果做差分
+    private void createAdapter(List<Word> words) {
+        wordAdapter = new WordAdapter(words, true);
+        wordAdapter.setFamiliarityChangeListener(new WordAdapter.OnFamiliarityChangeListener() {
+            @Override
+            public void onFamiliarityChange(Word word, boolean isFamiliar) {
+                repository.setFamiliar(word, isFamiliar);
+            }
+
+            @Override
+            public void onFavoriteChange(Word word, boolean isFavorite) {
+                repository.setFavorite(word, isFavorite);
+            }
+        });
+        wordAdapter.setOnItemClickListener(word -> openDetail(word.getId()));
+        recyclerView.setAdapter(wordAdapter);
+    }
+
+    private static boolean containsCjk(String text) {
+        return text.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN);
+    }
+
+    private void openDetail(long wordId) {
+        Intent intent = new Intent(this, WordDetailActivity.class);
+        intent.putExtra("word_id", wordId);
+        startActivity(intent);
+    }
+
+    @Override
+    public void onWordChanged(Word word) {
+        // 搜索结果不按熟悉度分组，按钮状态已由适配器更新
+    }
+
+    @Override
+    public void onWordsReloaded() {
+        search();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 离开页面时尽快写入缓冲中的熟悉度修改
+        repository.flushPendingWrites();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(searchRunnable);
+        suggestionAdapter.changeCursor(null);
+        repository.removeListener(this);
+        executorService.shutdown();
+    }
+}
@@ -9,7 +9,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.vocabularylearner.R;
 import com.example.vocabularylearner.entity.Word;
-import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.repository.WordRepository;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -17,7 +17,7 @@ import java.util.concurrent.Executors;
 public class WordDetailActivity extends AppCompatActivity {
     private TextView tvEnglish, tvPhonetic, tvChinese, tvExample;
     private ImageButton  btnFamiliar, btnBack;
-    private WordDbHelper dbHelper;
+    private WordRepository repository;
     private long wordId;
     private Word currentWord;
     private ExecutorService executorService;
@@ -28,7 +28,7 @@ public class WordDetailActivity extends AppCompatActivity {
         setContentView(R.layout.activity_word_detail);
 
         // 初始化
-        dbHelper = new WordDbHelper(this);
+        repository = WordRepository.getInstance(this);
         executorService = Executors.newSingleThreadExecutor();
         wordId = getIntent().getLongExtra("word_id", -1);
 
@@ -57,19 +57,16 @@ public class WordDetailActivity extends AppCompatActivity {
         btnFamiliar.setOnClickListener(v -> {
             if (currentWord != null) {
                 boolean newState = !currentWord.isFamiliar();
-                currentWord.setFamiliar(newState);
+                // 仓库更新缓存并通知列表页，写库在后台进行
+                repository.setFamiliar(currentWord, newState);
                 updateFamiliarUI();
-                
-                executorService.execute(() -> {
-                    dbHelper.updateWordFamiliarity(currentWord.getId(), newState);
-                });
             }
         });
     }
 
     private void loadWordDetail() {
         executorService.execute(() -> {
-            currentWord = dbHelper.getWordById(wordId);
+            currentWord = repository.getWord(wordId);
             
             runOnUiThread(() -> {
                 if (currentWord != null) {
@@ -94,10 +91,16 @@ public class WordDetailActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 离开页面时尽快写入缓冲中的熟悉度修改
+        WordRepository.getInstance(this).flushPendingWrites();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        dbHelper.close();
         executorService.shutdown();
     }
 
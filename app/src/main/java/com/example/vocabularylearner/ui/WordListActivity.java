@@ -6,18 +6,32 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.repository.WordRepository;
+import com.example.vocabularylearner.ui.adapter.ItemViewPreloader;
 import com.example.vocabularylearner.ui.adapter.WordPagerAdapter;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 
-public class WordListActivity extends AppCompatActivity {
+import java.util.ArrayList;
+import java.util.List;
+
+public class WordListActivity extends AppCompatActivity implements WordListFragment.WordViewSource {
+    // 单词列表项的估计最小高度（dp），用来估算一屏显示几项
+    private static final int WORD_ITEM_MIN_HEIGHT_DP = 72;
+    // 可见项之外，滚动时的视图缓存和预取还会用到的列表项数
+    private static final int EXTRA_ITEM_COUNT = 4;
+
     private String currentLetter;
     private boolean isChineseVisible = true;
     private Button btnToggleChinese;
-    private WordListFragment[] fragments = new WordListFragment[2];
+    // 两个标签页共用的ViewHolder池和预创建的列表项视图
+    private RecyclerView.RecycledViewPool wordViewPool;
+    private ItemViewPreloader wordViewPreloader;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,13 +66,18 @@ public class WordListActivity extends AppCompatActivity {
             isChineseVisible = !isChineseVisible;
             updateToggleButtonState();
             // 更新所有fragment的中文显示状态
-            for (WordListFragment fragment : fragments) {
-                if (fragment != null) {
-                    fragment.setChineseVisible(isChineseVisible);
-                }
+            for (WordListFragment fragment : getWordListFragments()) {
+                fragment.setChineseVisible(isChineseVisible);
             }
         });
 
+        // 在创建标签页之前开始在后台创建列表项：两个标签页的首屏，再加上第一次滑动时缓存和预取要用的
+        int itemsPerScreen = getResources().getConfiguration().screenHeightDp / WORD_ITEM_MIN_HEIGHT_DP + 1;
+        wordViewPool = new RecyclerView.RecycledViewPool();
+        wordViewPool.setMaxRecycledViews(0, itemsPerScreen + EXTRA_ITEM_COUNT);
+        wordViewPreloader = new ItemViewPreloader(this, R.layout.item_word);
+        wordViewPreloader.preload(itemsPerScreen * 2 + EXTRA_ITEM_COUNT);
+
         // 初始化ViewPager2和TabLayout
         ViewPager2 viewPager = findViewById(R.id.view_pager);
         TabLayout tabLayout = findViewById(R.id.tab_layout);
@@ -76,10 +95,29 @@ public class WordListActivity extends AppCompatActivity {
                 (tab, position) -> {
                     tab.setText(position == 0 ? "未熟悉" : "已熟悉");
                 }).attach();
+    }
 
-        // 初始化fragments引用
-        fragments[0] = WordListFragment.newInstance(currentLetter, false);
-        fragments[1] = WordListFragment.newInstance(currentLetter, true);
+    @Override
+    public RecyclerView.RecycledViewPool getWordViewPool() {
+        return wordViewPool;
+    }
+
+    @Override
+    public ItemViewPreloader getWordViewPreloader() {
+        return wordViewPreloader;
+    }
+
+    /**
+     * 当前由ViewPager2创建的单词列表页
+     */
+    private List<WordListFragment> getWordListFragments() {
+        List<WordListFragment> result = new ArrayList<>();
+        for (Fragment fragment : getSupportFragmentManager().getFragments()) {
+            if (fragment instanceof WordListFragment) {
+                result.add((WordListFragment) fragment);
+            }
+        }
+        return result;
     }
 
 
@@ -95,6 +133,21 @@ public class WordListActivity extends AppCompatActivity {
             btnToggleChinese.setText("显示中文");
         }
     }
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 离开页面时尽快写入缓冲中的熟悉度修改
+        WordRepository.getInstance(this).flushPendingWrites();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (wordViewPreloader != null) {
+            wordViewPreloader.close();
+        }
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         // 处理返回按钮
@@ -16,23 +16,45 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.vocabularylearner.R;
 import com.example.vocabularylearner.db.WordDbHelper;
 import com.example.vocabularylearner.entity.Word;
+import com.example.vocabularylearner.repository.WordRepository;
+import com.example.vocabularylearner.ui.adapter.ItemViewPreloader;
 import com.example.vocabularylearner.ui.adapter.WordAdapter;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class WordListFragment extends Fragment {
+public class WordListFragment extends Fragment implements WordRepository.WordChangeListener {
     private static final String ARG_LETTER = "letter";
     private static final String ARG_FAMILIAR = "familiar";
+    // 每页加载的单词数，以及距离列表末尾多少项时开始加载下一页
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15;
 
     private RecyclerView recyclerView;
     private WordAdapter wordAdapter;
-    private WordDbHelper dbHelper;
+    private WordRepository repository;
     private String currentLetter;
     private boolean isFamiliar;
     private boolean isChineseVisible = true;
     private ExecutorService executorService;
+    // 分页状态：上一页最后一个单词、是否正在加载、是否已加载完
+    private String lastEnglish;
+    private boolean isLoading;
+    private boolean hasMore = true;
+    // 每次从第一页重新加载时加一，旧列表的加载结果到达时丢弃
+    private int loadGeneration;
+    // 宿主页面提供的共享列表项视图，没有时为null
+    private WordViewSource viewSource;
+
+    /**
+     * 宿主页面提供的列表项视图：两个标签页共用一个ViewHolder池和一组预创建的视图
+     */
+    public interface WordViewSource {
+        RecyclerView.RecycledViewPool getWordViewPool();
+
+        ItemViewPreloader getWordViewPreloader();
+    }
 
     public static WordListFragment newInstance(String letter, boolean isFamiliar) {
         WordListFragment fragment = new WordListFragment();
@@ -50,7 +72,7 @@ public class WordListFragment extends Fragment {
             currentLetter = getArguments().getString(ARG_LETTER);
             isFamiliar = getArguments().getBoolean(ARG_FAMILIAR);
         }
-        dbHelper = new WordDbHelper(requireContext());
+        repository = WordRepository.getInstance(requireContext());
         executorService = Executors.newSingleThreadExecutor();
     }
 
@@ -66,15 +88,89 @@ public class WordListFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         recyclerView = view.findViewById(R.id.recycler_view_words);
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        recyclerView.setLayoutManager(layoutManager);
+
+        // 两个标签页共用宿主页面的ViewHolder池，页面销毁时列表项放回池中
+        if (requireActivity() instanceof WordViewSource) {
+            viewSource = (WordViewSource) requireActivity();
+            recyclerView.setRecycledViewPool(viewSource.getWordViewPool());
+            layoutManager.setRecycleChildrenOnDetach(true);
+        }
+
+        // 滚动接近末尾时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0 || wordAdapter == null) {
+                    return;
+                }
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= wordAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        repository.addListener(this);
         loadWordsByLetterAndFamiliarity(currentLetter, isFamiliar);
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        repository.removeListener(this);
+    }
+
+    /**
+     * 加载下一页并追加到列表
+     */
+    private void loadNextPage() {
+        if (isLoading || !hasMore) {
+            return;
+        }
+        isLoading = true;
+        String after = lastEnglish;
+        int generation = loadGeneration;
+        executorService.execute(() -> {
+            List<Word> words = repository.getWordPage(currentLetter, isFamiliar, after, PAGE_SIZE);
+
+            requireActivity().runOnUiThread(() -> {
+                // 查询期间列表已重新加载：这一页接在旧游标后面，加载状态也属于新的请求
+                if (generation != loadGeneration) {
+                    return;
+                }
+                isLoading = false;
+                onPageLoaded(words);
+                wordAdapter.appendWords(words);
+            });
+        });
+    }
+
+    private void onPageLoaded(List<Word> words) {
+        hasMore = words.size() == PAGE_SIZE;
+        if (!words.isEmpty()) {
+            lastEnglish = words.get(words.size() - 1).getEnglish();
+        }
+    }
+
+    /**
+     * 从第一页重新加载列表
+     */
     private void loadWordsByLetterAndFamiliarity(String letter, boolean familiar) {
+        isLoading = true;
+        int generation = ++loadGeneration;
         executorService.execute(() -> {
-            List<Word> words = dbHelper.getWordsByLetterAndFamiliarity(letter, familiar);
+            List<Word> words = repository.getWordPage(letter, familiar, null, PAGE_SIZE);
 
             requireActivity().runOnUiThread(() -> {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                isLoading = false;
+                lastEnglish = null;
+                onPageLoaded(words);
+
                 if (words.isEmpty()) {
                     Toast.makeText(requireContext(),
                             "没有找到" + (familiar ? "已熟悉" : "未熟悉") + "的单词",
@@ -82,25 +178,22 @@ public class WordListFragment extends Fragment {
                 }
 
                 wordAdapter = new WordAdapter(words, isChineseVisible);
+                if (viewSource != null) {
+                    wordAdapter.setViewPreloader(viewSource.getWordViewPreloader());
+                }
                 recyclerView.setAdapter(wordAdapter);
 
                 // 设置熟悉度变化监听器
                 wordAdapter.setFamiliarityChangeListener(new WordAdapter.OnFamiliarityChangeListener() {
                     @Override
                     public void onFamiliarityChange(Word word, boolean newFamiliar) {
-                        executorService.execute(() -> {
-                            dbHelper.updateWordFamiliarity(word.getId(), newFamiliar);
-                            // 更新后刷新列表
-                            requireActivity().runOnUiThread(() ->
-                                    loadWordsByLetterAndFamiliarity(currentLetter, isFamiliar));
-                        });
+                        // 仓库会通知两个标签页，只把这一行移到另一个标签页
+                        repository.setFamiliar(word, newFamiliar);
                     }
 
                     @Override
                     public void onFavoriteChange(Word word, boolean isFavorite) {
-                        executorService.execute(() -> {
-                            dbHelper.updateWordFavorite(word.getId(), isFavorite);
-                        });
+                        repository.setFavorite(word, isFavorite);
                     }
                 });
 
@@ -114,6 +207,28 @@ public class WordListFragment extends Fragment {
         });
     }
 
+    /**
+     * 单词熟悉度变化：不属于本页的移除；属于本页且落在已加载范围内的插入，
+     * 否则之后翻页时会自然加载到
+     */
+    @Override
+    public void onWordChanged(Word word) {
+        // 仓库的事件面向所有页面，其他字母的单词与本页无关
+        if (wordAdapter == null || !WordDbHelper.getFirstLetter(word.getEnglish()).equalsIgnoreCase(currentLetter)) {
+            return;
+        }
+        if (word.isFamiliar() != isFamiliar) {
+            wordAdapter.removeWord(word.getId());
+        } else if (!hasMore || (lastEnglish != null && word.getEnglish().compareTo(lastEnglish) < 0)) {
+            wordAdapter.insertWordSorted(word);
+        }
+    }
+
+    @Override
+    public void onWordsReloaded() {
+        loadWordsByLetterAndFamiliarity(currentLetter, isFamiliar);
+    }
+
     public void setChineseVisible(boolean visible) {
         isChineseVisible = visible;
         if (wordAdapter != null) {
@@ -124,7 +239,6 @@ public class WordListFragment extends Fragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        dbHelper.close();
         executorService.shutdown();
     }
 }
\ No newline at end of file
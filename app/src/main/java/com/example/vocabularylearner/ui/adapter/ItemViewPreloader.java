@@ -0,0 +1,97 @@
+package com.example.vocabularylearner.ui.adapter;
+
+import android.content.Context;
+import android.os.Trace;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 列表项视图的后台预创建：进入页面时在后台线程提前创建若干个列表项视图，
+ * 适配器创建ViewHolder时先取预创建的，取完了再在主线程同步创建。
+ * 构造时记下创建线程的控件（如ProgressBar，之后在其他线程上的setProgress会被post而不是立即生效）
+ * 不能放在布局里直接预创建，要用ViewStub占位，由ViewHolder在主线程创建（见item_letter）
+ */
+public class ItemViewPreloader {
+    private static final String TAG = "ItemViewPreloader";
+    // 基准测试用：关闭后只在主线程创建，用于对比
+    private static volatile boolean enabled = true;
+
+    // 复制出的inflater保留AppCompat的控件工厂，且不与主线程共用同一个实例
+    private final LayoutInflater inflater;
+    private final int layoutId;
+    // 只用来解析根布局的layout_*属性，不会加入子视图
+    private final ViewGroup layoutParent;
+    private final ConcurrentLinkedQueue<View> views = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile boolean closed;
+
+    /**
+     * 在主线程创建，context为页面的Activity（主题和控件工厂以它为准）
+     */
+    public ItemViewPreloader(Context context, @LayoutRes int layoutId) {
+        this.inflater = LayoutInflater.from(context).cloneInContext(context);
+        this.layoutId = layoutId;
+        this.layoutParent = new FrameLayout(context);
+    }
+
+    @VisibleForTesting
+    public static void setEnabled(boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    /**
+     * 创建count个视图（在主线程调用，setContentView之后）：第一个在主线程创建，其余在后台创建。
+     * LayoutInflater和AppCompat按类名缓存控件构造方法的表是静态的且没有同步，
+     * 先在主线程创建一个，布局用到的类就都已写入缓存，后台线程之后只读取这些表项；
+     * 在setContentView之后开始，避免与页面布局的创建同时写入缓存
+     */
+    public void preload(int count) {
+        if (!enabled || count <= 0) {
+            return;
+        }
+        views.add(inflater.inflate(layoutId, layoutParent, false));
+        executor.execute(() -> {
+            Trace.beginSection("ItemViewPreloader.preload");
+            try {
+                for (int i = 1; i < count && !closed; i++) {
+                    views.add(inflater.inflate(layoutId, layoutParent, false));
+                }
+            } catch (RuntimeException e) {
+                // 个别控件不支持在后台创建时退回主线程创建
+                Log.w(TAG, "preload failed", e);
+            } finally {
+                Trace.endSection();
+            }
+        });
+    }
+
+    /**
+     * 取一个列表项视图（主线程调用）：有预创建的直接返回，否则同步创建
+     */
+    public View inflate(ViewGroup parent) {
+        View view = views.poll();
+        if (view != null) {
+            return view;
+        }
+        return LayoutInflater.from(parent.getContext()).inflate(layoutId, parent, false);
+    }
+
+    /**
+     * 页面销毁时调用：停止预创建并丢弃没用上的视图
+     */
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        views.clear();
+    }
+}
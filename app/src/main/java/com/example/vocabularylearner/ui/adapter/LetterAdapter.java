@@ -3,6 +3,7 @@ package com.example.vocabularylearner.ui.adapter;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
@@ -11,12 +12,16 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.vocabularylearner.entity.Letter;
 import com.example.vocabularylearner.R;
+import com.example.vocabularylearner.entity.LetterStats;
 
 import java.util.List;
+import java.util.Map;
 
 public class LetterAdapter extends RecyclerView.Adapter<LetterAdapter.LetterViewHolder> {
     private List<Letter> letterList;
     private OnLetterClickListener listener;
+    // 预创建的列表项视图，没有时在主线程创建
+    private ItemViewPreloader viewPreloader;
 
     public LetterAdapter(List<Letter> letterList) {
         this.letterList = letterList;
@@ -25,8 +30,9 @@ public class LetterAdapter extends RecyclerView.Adapter<LetterAdapter.LetterView
     @NonNull
     @Override
     public LetterViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_letter, parent, false);
+        View view = viewPreloader != null
+                ? viewPreloader.inflate(parent)
+                : LayoutInflater.from(parent.getContext()).inflate(R.layout.item_letter, parent, false);
         return new LetterViewHolder(view);
     }
 
@@ -54,10 +60,25 @@ public class LetterAdapter extends RecyclerView.Adapter<LetterAdapter.LetterView
         return letterList.size();
     }
 
+    // 设置item_letter的预创建视图来源
+    public void setViewPreloader(ItemViewPreloader viewPreloader) {
+        this.viewPreloader = viewPreloader;
+    }
+
     public Letter getItem(int position) {
         return letterList.get(position);
     }
 
+    // 批量更新所有字母的统计信息，统计中没有的字母计为0
+    public void setLetterStats(Map<String, LetterStats> statsMap) {
+        for (Letter letter : letterList) {
+            LetterStats stats = statsMap.get(letter.getLetter());
+            letter.setTotalCount(stats != null ? stats.getTotalCount() : 0);
+            letter.setFamiliarCount(stats != null ? stats.getFamiliarCount() : 0);
+        }
+        notifyItemRangeChanged(0, letterList.size());
+    }
+
     public static class LetterViewHolder extends RecyclerView.ViewHolder {
         TextView tvLetter, tvStats;
         ProgressBar tvProgress;
@@ -66,7 +87,9 @@ public class LetterAdapter extends RecyclerView.Adapter<LetterAdapter.LetterView
             super(itemView);
             tvLetter = itemView.findViewById(R.id.tv_letter);
             tvStats = itemView.findViewById(R.id.tv_stats);
-            tvProgress = itemView.findViewById(R.id.tv_progress);
+            // 进度条在主线程创建（视图可能是后台预创建的，见item_letter）
+            ViewStub progressStub = itemView.findViewById(R.id.stub_progress);
+            tvProgress = progressStub != null ? (ProgressBar) progressStub.inflate() : itemView.findViewById(R.id.tv_progress);
         }
     }
 
@@ -7,36 +7,97 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.vocabularylearner.R;
 import com.example.vocabularylearner.entity.Word;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder> {
-    private List<Word> wordList;
+/**
+ * 单词列表适配器：列表变化在后台线程做差分（AsyncListDiffer），只刷新变化的行；
+ * 中文显示切换和熟悉度变化通过payload只重新绑定对应控件
+ */
+public class WordAdapter extends ListAdapter<Word, WordAdapter.WordViewHolder> {
+    // 局部刷新的payload
+    private static final Object PAYLOAD_CHINESE_VISIBILITY = new Object();
+    private static final Object PAYLOAD_FAMILIAR = new Object();
+
+    // 最近一次提交的列表：差分在后台进行，连续修改要基于它而不是getCurrentList()
+    private List<Word> latestList;
     private boolean isChineseVisible;
     private OnFamiliarityChangeListener familiarityChangeListener;
     private OnItemClickListener itemClickListener;
+    // 预创建的列表项视图，没有时在主线程创建
+    private ItemViewPreloader viewPreloader;
+
+    private static final DiffUtil.ItemCallback<Word> DIFF_CALLBACK = new DiffUtil.ItemCallback<Word>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Word oldItem, @NonNull Word newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Word oldItem, @NonNull Word newItem) {
+            return Objects.equals(oldItem.getEnglish(), newItem.getEnglish())
+                    && Objects.equals(oldItem.getPhonetic(), newItem.getPhonetic())
+                    && Objects.equals(oldItem.getChinese(), newItem.getChinese())
+                    && oldItem.isFamiliar() == newItem.isFamiliar()
+                    && oldItem.isFavorite() == newItem.isFavorite();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Word oldItem, @NonNull Word newItem) {
+            // 只有熟悉度变化时局部刷新按钮和中文
+            if (oldItem.isFamiliar() != newItem.isFamiliar()
+                    && Objects.equals(oldItem.getEnglish(), newItem.getEnglish())
+                    && Objects.equals(oldItem.getPhonetic(), newItem.getPhonetic())
+                    && Objects.equals(oldItem.getChinese(), newItem.getChinese())) {
+                return PAYLOAD_FAMILIAR;
+            }
+            return null;
+        }
+    };
 
     // 构造方法
     public WordAdapter(List<Word> wordList, boolean isChineseVisible) {
-        this.wordList = wordList;
+        super(DIFF_CALLBACK);
         this.isChineseVisible = isChineseVisible;
+        setHasStableIds(true);
+        submit(new ArrayList<>(wordList));
     }
 
     @NonNull
     @Override
     public WordViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_word, parent, false);
+        View view = viewPreloader != null
+                ? viewPreloader.inflate(parent)
+                : LayoutInflater.from(parent.getContext()).inflate(R.layout.item_word, parent, false);
         return new WordViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull WordViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        Word word = getItem(position);
+        if (payloads.contains(PAYLOAD_FAMILIAR)) {
+            bindFamiliar(holder, word);
+        }
+        // 熟悉度变化也会影响中文是否显示
+        bindChineseVisibility(holder, word);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull WordViewHolder holder, int position) {
-        Word word = wordList.get(position);
+        Word word = getItem(position);
         if (word == null) return;
 
         // 绑定单词数据
@@ -44,58 +105,129 @@ public class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder
         holder.tvPhonetic.setText(word.getPhonetic());
         holder.tvChinese.setText(word.getChinese());
 
-        // 控制中文显示/隐藏：
-        // 1. 如果设置为显示中文，则全部显示
-        // 2. 如果设置为隐藏中文，则只隐藏未熟悉的单词的中文
+        bindChineseVisibility(holder, word);
+        bindFamiliar(holder, word);
+
+        // 移除收藏按钮相关代码...
+
+        // 熟悉度按钮点击事件（按当前位置取单词，避免绑定时的旧引用）
+        holder.btnFamiliar.setOnClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (adapterPosition == RecyclerView.NO_POSITION) {
+                return;
+            }
+            // 提交修改后的副本：列表中的旧对象保持原状，差分才能比出熟悉度变化并只刷新按钮和中文
+            Word changed = new Word(getItem(adapterPosition));
+            boolean newState = !changed.isFamiliar();
+            changed.setFamiliar(newState);
+            replaceWord(changed);
+
+            if (familiarityChangeListener != null) {
+                familiarityChangeListener.onFamiliarityChange(changed, newState);
+            }
+        });
+
+        // 单词项点击事件（跳转到详情页）
+        holder.itemView.setOnClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (itemClickListener != null && adapterPosition != RecyclerView.NO_POSITION) {
+                itemClickListener.onItemClick(getItem(adapterPosition));
+            }
+        });
+    }
+
+    // 控制中文显示/隐藏：
+    // 1. 如果设置为显示中文，则全部显示
+    // 2. 如果设置为隐藏中文，则只隐藏未熟悉的单词的中文
+    private void bindChineseVisibility(WordViewHolder holder, Word word) {
         if (isChineseVisible) {
             holder.tvChinese.setVisibility(View.VISIBLE);
         } else {
             // 未熟悉的单词隐藏中文，已熟悉的单词显示中文
             holder.tvChinese.setVisibility(word.isFamiliar() ? View.VISIBLE : View.GONE);
         }
+    }
 
-        // 设置熟悉度状态（使用加号和对勾图标）
+    // 设置熟悉度状态（使用加号和对勾图标）
+    private void bindFamiliar(WordViewHolder holder, Word word) {
         holder.btnFamiliar.setImageResource(word.isFamiliar()
                 ? R.drawable.ic_familiar  // 对勾图标
                 : R.drawable.ic_plus);    // 加号图标
+    }
 
-        // 移除收藏按钮相关代码...
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
 
-        // 熟悉度按钮点击事件
-        holder.btnFamiliar.setOnClickListener(v -> {
-            boolean newState = !word.isFamiliar();
-            word.setFamiliar(newState);
-            holder.btnFamiliar.setImageResource(newState
-                    ? R.drawable.ic_familiar
-                    : R.drawable.ic_plus);
-
-            // 更新中文显示状态（因为熟悉度变化会影响中文是否显示）
-            if (!isChineseVisible) {
-                holder.tvChinese.setVisibility(newState ? View.VISIBLE : View.GONE);
+    // 追加下一页单词
+    public void appendWords(List<Word> words) {
+        if (words.isEmpty()) {
+            return;
+        }
+        List<Word> newList = new ArrayList<>(latestList);
+        newList.addAll(words);
+        submit(newList);
+    }
+
+    // 移除一个单词（例如熟悉度变化后移到另一个标签页）
+    public void removeWord(long wordId) {
+        List<Word> newList = new ArrayList<>(latestList);
+        for (int i = 0; i < newList.size(); i++) {
+            if (newList.get(i).getId() == wordId) {
+                newList.remove(i);
+                submit(newList);
+                return;
             }
+        }
+    }
 
-            if (familiarityChangeListener != null) {
-                familiarityChangeListener.onFamiliarityChange(word, newState);
+    // 按英文顺序插入一个单词，已存在则忽略
+    public void insertWordSorted(Word word) {
+        List<Word> newList = new ArrayList<>(latestList);
+        int insertAt = newList.size();
+        for (int i = 0; i < newList.size(); i++) {
+            Word existing = newList.get(i);
+            if (existing.getId() == word.getId()) {
+                return;
             }
-        });
+            if (insertAt == newList.size() && existing.getEnglish().compareTo(word.getEnglish()) > 0) {
+                insertAt = i;
+            }
+        }
+        newList.add(insertAt, word);
+        submit(newList);
+    }
 
-        // 单词项点击事件（跳转到详情页）
-        holder.itemView.setOnClickListener(v -> {
-            if (itemClickListener != null) {
-                itemClickListener.onItemClick(word);
+    // 用新对象替换同ID的单词
+    private void replaceWord(Word word) {
+        List<Word> newList = new ArrayList<>(latestList);
+        for (int i = 0; i < newList.size(); i++) {
+            if (newList.get(i).getId() == word.getId()) {
+                newList.set(i, word);
+                submit(newList);
+                return;
             }
-        });
+        }
     }
 
-    @Override
-    public int getItemCount() {
-        return wordList == null ? 0 : wordList.size();
+    private void submit(List<Word> newList) {
+        latestList = newList;
+        submitList(newList);
     }
 
-    // 更新中文显示状态
+    // 设置item_word的预创建视图来源
+    public void setViewPreloader(ItemViewPreloader viewPreloader) {
+        this.viewPreloader = viewPreloader;
+    }
+
+    // 更新中文显示状态（只重新绑定中文控件）
     public void setChineseVisible(boolean visible) {
+        if (isChineseVisible == visible) {
+            return;
+        }
         isChineseVisible = visible;
-        notifyDataSetChanged(); // 刷新列表
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_CHINESE_VISIBILITY);
     }
 
     //  ViewHolder类
@@ -1,142 +1,196 @@
 package com.example.vocabularylearner.utils;
 
 import android.content.Context;
-import android.content.pm.PackageManager;
 import android.net.Uri;
-import android.os.Build;
-
-import androidx.core.app.ActivityCompat;
-import androidx.core.content.ContextCompat;
+import android.os.Trace;
 
 import com.example.vocabularylearner.entity.Word;
 
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Excel导入导出入口。本类不引用任何POI的类：xls/xlsx的读写交给SpreadsheetEngine，
+ * 它的POI实现在第一次用到时才按类名加载，应用启动和CSV导入导出都不会加载POI
+ */
 public class ExcelUtils {
-    private static final int REQUEST_EXTERNAL_STORAGE = 1;
-    private static String[] PERMISSIONS_STORAGE = {
-            "android.permission.READ_EXTERNAL_STORAGE",
-            "android.permission.WRITE_EXTERNAL_STORAGE"
-    };
+    private static final String MIME_XLSX = "vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    // 按类名加载，避免对实现类的直接引用把POI带进启动路径
+    private static final String ENGINE_CLASS_NAME = "com.example.vocabularylearner.utils.PoiSpreadsheetEngine";
+
+    // 导出文件类型
+    public static final String MIME_TYPE_XLSX = "application/" + MIME_XLSX;
+    public static final String MIME_TYPE_CSV = "text/csv";
+
+    // 每导出多少行回调一次进度
+    static final int PROGRESS_INTERVAL = 500;
+
+    private static volatile SpreadsheetEngine engine;
 
     /**
-     * 检查存储权限
+     * 逐行解析回调：每解析出一个单词调用一次，解析过程中不会在内存中累积单词列表
      */
-    public static boolean hasStoragePermission(Context context) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            return true; // Android 13+ 不需要读取权限
-        }
-        
-        int permission = ContextCompat.checkSelfPermission(context, "android.permission.READ_EXTERNAL_STORAGE");
-        return permission == PackageManager.PERMISSION_GRANTED;
+    public interface OnWordParsedListener {
+        void onWordParsed(Word word);
     }
 
     /**
-     * 请求存储权限
+     * 导出进度回调（在导出线程调用）
      */
-    public static void requestStoragePermission(Context context, int requestCode) {
-        ActivityCompat.requestPermissions(
-                (android.app.Activity) context,
-                PERMISSIONS_STORAGE,
-                requestCode
-        );
+    public interface OnExportProgressListener {
+        void onProgress(int exportedCount);
     }
 
     /**
-     * 解析Excel文件
+     * 解析Excel文件（一次性返回全部单词，适用于小文件；大文件请使用流式解析）
      */
     public static List<Word> parseExcelFile(Context context, Uri uri) throws IOException {
         List<Word> words = new ArrayList<>();
-        InputStream inputStream = context.getContentResolver().openInputStream(uri);
-        
-        if (inputStream == null) {
-            throw new IOException("无法打开文件");
-        }
+        parseExcelFile(context, uri, words::add);
+        return words;
+    }
 
-        Workbook workbook = null;
+    /**
+     * 流式解析Excel文件：xlsx使用SAX事件模型，xls使用HSSF事件模型，
+     * 只读取第一个工作表并跳过标题行，内存占用与文件大小无关
+     */
+    public static void parseExcelFile(Context context, Uri uri, OnWordParsedListener listener) throws IOException {
+        // 先把文件复制到缓存目录，POI按文件随机读取，避免把整个压缩包读进内存
+        File tempFile = copyToCacheFile(context, uri, null);
         try {
-            // 根据文件扩展名判断是xls还是xlsx
-            String fileName = context.getContentResolver().getType(uri);
-            if (fileName != null && fileName.contains("vnd.openxmlformats-officedocument.spreadsheetml.sheet")) {
-                workbook = new XSSFWorkbook(inputStream);
-            } else {
-                workbook = new HSSFWorkbook(inputStream);
-            }
-
-            // 读取第一个工作表
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                return words;
-            }
-
-            // 迭代行（跳过标题行）
-            Iterator<Row> rowIterator = sheet.iterator();
-            if (rowIterator.hasNext()) {
-                rowIterator.next(); // 跳过标题行
-            }
+            parseExcelFile(tempFile, context.getContentResolver().getType(uri), listener);
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+    }
 
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                
-                // 获取单元格数据
-                Cell englishCell = row.getCell(0);
-                Cell phoneticCell = row.getCell(1);
-                Cell chineseCell = row.getCell(2);
-                Cell exampleCell = row.getCell(3);
-                Cell familiarCell = row.getCell(4);
-
-                if (englishCell == null) {
-                    continue; // 跳过空行
-                }
+    /**
+     * 流式解析已复制到本地的Excel文件，mimeType为原Uri的类型
+     */
+    public static void parseExcelFile(File file, String mimeType, OnWordParsedListener listener) throws IOException {
+        // 根据文件类型判断是xls还是xlsx
+        getEngine().parse(file, mimeType != null && mimeType.contains(MIME_XLSX), listener);
+    }
 
-                String english = getCellValue(englishCell).trim();
-                String phonetic = phoneticCell != null ? getCellValue(phoneticCell).trim() : "";
-                String chinese = chineseCell != null ? getCellValue(chineseCell).trim() : "";
-                String example = exampleCell != null ? getCellValue(exampleCell).trim() : "";
-                String familiar = familiarCell != null ? getCellValue(familiarCell).trim() : "";
+    /**
+     * 将Uri指向的内容复制到缓存目录的临时文件，digest不为null时同时计算内容摘要。
+     * 调用方负责删除返回的文件
+     */
+    public static File copyToCacheFile(Context context, Uri uri, MessageDigest digest) throws IOException {
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            throw new IOException("无法打开文件");
+        }
 
-                if (!english.isEmpty()) {
-                    words.add(new Word(english, phonetic, chinese, example,"1".equals( familiar)));
+        File tempFile = File.createTempFile("import", ".tmp", context.getCacheDir());
+        try (InputStream in = inputStream; OutputStream out = new FileOutputStream(tempFile)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
                 }
             }
-        } finally {
-            if (workbook != null) {
-                workbook.close();
-            }
-            inputStream.close();
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw e;
         }
+        return tempFile;
+    }
 
-        return words;
+    /**
+     * 流式导出单词到Uri指向的文件（列顺序与解析一致，可以重新导入）。
+     * xlsx使用SXSSF，只在内存中保留最近的若干行；csv为带BOM的UTF-8，逐行写出。
+     * 返回导出的单词数
+     */
+    public static int exportWords(Context context, Uri uri, Iterator<Word> words, boolean asCsv,
+                                  OnExportProgressListener listener) throws IOException {
+        // "wt"：覆盖已存在的文件
+        OutputStream outputStream = context.getContentResolver().openOutputStream(uri, "wt");
+        if (outputStream == null) {
+            throw new IOException("无法创建文件");
+        }
+        try (OutputStream out = outputStream) {
+            return asCsv ? exportCsv(out, words, listener) : getEngine().exportXlsx(out, words, listener);
+        }
     }
 
     /**
-     * 获取单元格的值
+     * 第一次读写Excel时加载POI实现（在调用线程上，耗时会出现在“ExcelUtils.loadEngine”跟踪区段中）
      */
-    private static String getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
+    private static SpreadsheetEngine getEngine() throws IOException {
+        SpreadsheetEngine result = engine;
+        if (result == null) {
+            synchronized (ExcelUtils.class) {
+                result = engine;
+                if (result == null) {
+                    Trace.beginSection("ExcelUtils.loadEngine");
+                    try {
+                        result = (SpreadsheetEngine) Class.forName(ENGINE_CLASS_NAME)
+                                .getDeclaredConstructor()
+                                .newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        throw new IOException("无法加载Excel解析库", e);
+                    } finally {
+                        Trace.endSection();
+                    }
+                    engine = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int exportCsv(OutputStream out, Iterator<Word> words, OnExportProgressListener listener) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM让Excel按UTF-8打开中文
+        writer.write('\uFEFF');
+        writeCsvLine(writer, WordColumns.HEADER);
+
+        String[] cells = new String[WordColumns.COLUMN_COUNT];
+        int count = 0;
+        while (words.hasNext()) {
+            WordColumns.toCells(words.next(), cells);
+            writeCsvLine(writer, cells);
+            if (++count % PROGRESS_INTERVAL == 0) {
+                listener.onProgress(count);
+            }
         }
+        writer.flush();
+        listener.onProgress(count);
+        return count;
+    }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
+    // RFC 4180：含逗号、引号或换行的字段加引号，引号写两次
+    private static void writeCsvLine(Writer writer, String[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = cells[i] == null ? "" : cells[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
         }
+        writer.write("\r\n");
     }
 }
@@ -0,0 +1,38 @@
+package com.example.vocabularylearner.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+/**
+ * 存储权限工具：启动时就会用到，不要在这里引用Excel解析相关的类
+ */
+public class PermissionUtils {
+    private static final String[] PERMISSIONS_STORAGE = {
+            "android.permission.READ_EXTERNAL_STORAGE",
+            "android.permission.WRITE_EXTERNAL_STORAGE"
+    };
+
+    /**
+     * 检查存储权限
+     */
+    public static boolean hasStoragePermission(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            return true; // Android 13+ 不需要读取权限
+        }
+
+        int permission = ContextCompat.checkSelfPermission(context, "android.permission.READ_EXTERNAL_STORAGE");
+        return permission == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /**
+     * 请求存储权限
+     */
+    public static void requestStoragePermission(Activity activity, int requestCode) {
+        ActivityCompat.requestPermissions(activity, PERMISSIONS_STORAGE, requestCode);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.vocabularylearner.utils;
+
+import com.example.vocabularylearner.entity.Word;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * 基于POI的Excel读写引擎。只由ExcelUtils按类名加载，其他类不要直接引用它，
+ * 这样POI的类只在第一次导入或导出Excel时才加载
+ */
+final class PoiSpreadsheetEngine implements SpreadsheetEngine {
+    // 导出时xlsx在内存中保留的行数，更早的行写入临时文件
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    @Override
+    public void parse(File file, boolean isXlsx, ExcelUtils.OnWordParsedListener listener) throws IOException {
+        if (isXlsx) {
+            parseXlsx(file, listener);
+        } else {
+            parseXls(file, listener);
+        }
+    }
+
+    /**
+     * 使用XSSF SAX事件模型解析xlsx
+     */
+    private static void parseXlsx(File file, ExcelUtils.OnWordParsedListener listener) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+
+            // 读取第一个工作表
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheetStream = sheets.next()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(),
+                        sharedStrings,
+                        new XlsxRowHandler(listener),
+                        new DataFormatter(),
+                        false));
+                xmlReader.parse(new InputSource(sheetStream));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("无法解析xlsx文件: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 使用HSSF事件模型解析xls
+     */
+    private static void parseXls(File file, ExcelUtils.OnWordParsedListener listener) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            XlsRecordListener recordListener = new XlsRecordListener(listener);
+            FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(
+                    new MissingRecordAwareHSSFListener(recordListener));
+            recordListener.formatListener = formatListener;
+
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(formatListener);
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        }
+    }
+
+    @Override
+    public int exportXlsx(OutputStream out, Iterator<Word> words, ExcelUtils.OnExportProgressListener listener) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("单词");
+            writeRow(sheet.createRow(0), WordColumns.HEADER);
+
+            String[] cells = new String[WordColumns.COLUMN_COUNT];
+            int count = 0;
+            while (words.hasNext()) {
+                WordColumns.toCells(words.next(), cells);
+                writeRow(sheet.createRow(++count), cells);
+                if (count % ExcelUtils.PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(count);
+                }
+            }
+            workbook.write(out);
+            listener.onProgress(count);
+            return count;
+        } finally {
+            // 删除SXSSF的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeRow(Row row, String[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null && !cells[i].isEmpty()) {
+                row.createCell(i).setCellValue(cells[i]);
+            }
+        }
+    }
+
+    /**
+     * xlsx行处理器：按列号收集单元格，行结束时回调
+     */
+    private static class XlsxRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ExcelUtils.OnWordParsedListener listener;
+        private final String[] cells = new String[WordColumns.COLUMN_COUNT];
+        private int currentColumn;
+
+        XlsxRowHandler(ExcelUtils.OnWordParsedListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            currentColumn = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                return; // 跳过标题行
+            }
+            Word word = WordColumns.toWord(cells);
+            if (word != null) {
+                listener.onWordParsed(word);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // 部分文件省略单元格引用，此时按顺序递增列号
+            currentColumn = cellReference != null
+                    ? new CellReference(cellReference).getCol()
+                    : currentColumn + 1;
+            if (currentColumn < WordColumns.COLUMN_COUNT) {
+                cells[currentColumn] = formattedValue;
+            }
+        }
+    }
+
+    /**
+     * xls记录处理器：只处理第一个工作表，行结束（LastCellOfRowDummyRecord）时回调
+     */
+    private static class XlsRecordListener implements HSSFListener {
+        private final ExcelUtils.OnWordParsedListener listener;
+        private final String[] cells = new String[WordColumns.COLUMN_COUNT];
+        private FormatTrackingHSSFListener formatListener;
+        private SSTRecord sstRecord;
+        private int sheetIndex = -1;
+        // 公式结果为字符串时，值在紧随其后的StringRecord中
+        private int pendingStringColumn = -1;
+
+        XlsRecordListener(ExcelUtils.OnWordParsedListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void processRecord(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheetIndex++;
+                        Arrays.fill(cells, null);
+                    }
+                    break;
+                case SSTRecord.sid:
+                    sstRecord = (SSTRecord) record;
+                    break;
+                default:
+                    if (sheetIndex == 0) {
+                        processSheetRecord(record);
+                    }
+                    break;
+            }
+        }
+
+        private void processSheetRecord(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid: {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    if (sstRecord != null) {
+                        setCell(label.getColumn(), sstRecord.getString(label.getSSTIndex()).getString());
+                    }
+                    break;
+                }
+                case LabelRecord.sid: {
+                    LabelRecord label = (LabelRecord) record;
+                    setCell(label.getColumn(), label.getValue());
+                    break;
+                }
+                case NumberRecord.sid: {
+                    NumberRecord number = (NumberRecord) record;
+                    setCell(number.getColumn(), formatListener.formatNumberDateCell(number));
+                    break;
+                }
+                case BoolErrRecord.sid: {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        setCell(boolErr.getColumn(), String.valueOf(boolErr.getBooleanValue()));
+                    }
+                    break;
+                }
+                case FormulaRecord.sid: {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        pendingStringColumn = formula.getColumn();
+                    } else {
+                        setCell(formula.getColumn(), formatListener.formatNumberDateCell(formula));
+                    }
+                    break;
+                }
+                case StringRecord.sid:
+                    if (pendingStringColumn >= 0) {
+                        setCell(pendingStringColumn, ((StringRecord) record).getString());
+                        pendingStringColumn = -1;
+                    }
+                    break;
+                default:
+                    if (record instanceof LastCellOfRowDummyRecord) {
+                        int rowNum = ((LastCellOfRowDummyRecord) record).getRow();
+                        if (rowNum > 0) { // 跳过标题行
+                            Word word = WordColumns.toWord(cells);
+                            if (word != null) {
+                                listener.onWordParsed(word);
+                            }
+                        }
+                        Arrays.fill(cells, null);
+                    }
+                    break;
+            }
+        }
+
+        private void setCell(int column, String value) {
+            if (column < WordColumns.COLUMN_COUNT) {
+                cells[column] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.vocabularylearner.utils;
+
+import com.example.vocabularylearner.entity.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Excel读写引擎：实现依赖POI，由ExcelUtils在第一次用到时按类名加载
+ */
+interface SpreadsheetEngine {
+    /**
+     * 流式解析第一个工作表，跳过标题行
+     */
+    void parse(File file, boolean isXlsx, ExcelUtils.OnWordParsedListener listener) throws IOException;
+
+    /**
+     * 流式写出xlsx，返回导出的单词数
+     */
+    int exportXlsx(OutputStream out, Iterator<Word> words, ExcelUtils.OnExportProgressListener listener) throws IOException;
+}
@@ -0,0 +1,55 @@
+package com.example.vocabularylearner.utils;
+
+import com.example.vocabularylearner.entity.Word;
+
+/**
+ * 单词表的列布局：Excel和文本文件的导入导出共用，不依赖POI
+ */
+final class WordColumns {
+    // 列数：英文、音标、中文、例句、是否熟悉、是否收藏（可省略）
+    static final int COLUMN_COUNT = 6;
+    // 导出时的标题行，与解析时的列顺序一致
+    static final String[] HEADER = {"英文", "音标", "中文", "例句", "熟悉", "收藏"};
+
+    private WordColumns() {
+    }
+
+    /**
+     * 将一行单元格的值转换为单词，英文为空时返回null
+     */
+    static Word toWord(String[] cells) {
+        String english = cellText(cells[0]);
+        if (english.isEmpty()) {
+            return null; // 跳过空行
+        }
+
+        String phonetic = cellText(cells[1]);
+        String chinese = cellText(cells[2]);
+        String example = cellText(cells[3]);
+        String familiar = cellText(cells[4]);
+        Word word = new Word(english, phonetic, chinese, example, "1".equals(familiar));
+        word.setFavorite("1".equals(cellText(cells[5])));
+        return word;
+    }
+
+    static void toCells(Word word, String[] cells) {
+        cells[0] = word.getEnglish();
+        cells[1] = word.getPhonetic();
+        cells[2] = word.getChinese();
+        cells[3] = word.getExample();
+        cells[4] = word.isFamiliar() ? "1" : "0";
+        cells[5] = word.isFavorite() ? "1" : "0";
+    }
+
+    /**
+     * 是否为标题行（导出文件的第一行）
+     */
+    static boolean isHeader(String[] cells) {
+        String first = cellText(cells[0]);
+        return first.equals(HEADER[0]) || first.equalsIgnoreCase("english");
+    }
+
+    static String cellText(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.vocabularylearner.utils;
+
+import com.example.vocabularylearner.entity.Word;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 文本单词表解析：CSV、TSV和纯文本（每行一个单词，英文后面可以跟中文释义），列布局与Excel相同。
+ * 不依赖POI：通过FileChannel按块读取并解码，逐字符解析，整个文件只复用一个单元格数组和一个StringBuilder，
+ * 不建立行列表。编码按BOM判断，没有BOM时先按UTF-8校验开头的内容，不合法则按GBK读取
+ */
+public final class WordListParser {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 分隔符：纯文本整行为一个字段；自动时按第一行判断
+    private static final int DELIMITER_PLAIN = -1;
+    private static final int DELIMITER_AUTO_PLAIN = -2;
+    private static final int DELIMITER_AUTO_COMMA = -3;
+
+    private static final String MIME_TSV = "text/tab-separated-values";
+    private static final String MIME_PLAIN = "text/plain";
+
+    private WordListParser() {
+    }
+
+    /**
+     * 按文件头判断是否为文本文件：xlsx是zip压缩包，xls是OLE2复合文档，其余按文本解析。
+     * 有些文件管理器把csv报告为Excel类型，因此不只看MIME类型
+     */
+    public static boolean isTextFile(File file) throws IOException {
+        byte[] head = new byte[4];
+        int read;
+        try (FileInputStream in = new FileInputStream(file)) {
+            read = in.read(head);
+        }
+        if (read < 4) {
+            return true;
+        }
+        boolean isZip = head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4;
+        boolean isOle2 = (head[0] & 0xFF) == 0xD0 && (head[1] & 0xFF) == 0xCF
+                && (head[2] & 0xFF) == 0x11 && (head[3] & 0xFF) == 0xE0;
+        return !isZip && !isOle2;
+    }
+
+    /**
+     * 流式解析文本单词表，mimeType用于判断分隔符（TSV用制表符，纯文本按行，其余按逗号；
+     * 第一行含制表符时都按TSV处理）。第一行是标题时跳过
+     */
+    public static void parse(File file, String mimeType, ExcelUtils.OnWordParsedListener listener) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        RowReader reader = new RowReader(delimiterFor(mimeType), listener);
+
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            boolean endOfInput = fill(channel, bytes);
+            CharsetDecoder decoder = detectCharset(bytes, endOfInput).newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+            while (true) {
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                feed(reader, chars);
+                if (result.isOverflow()) {
+                    continue; // 字符缓冲区满了，还有字节没解码
+                }
+                if (endOfInput) {
+                    break;
+                }
+                bytes.compact();
+                endOfInput = fill(channel, bytes);
+            }
+            decoder.flush(chars);
+            feed(reader, chars);
+            reader.finish();
+        }
+    }
+
+    private static int delimiterFor(String mimeType) {
+        if (MIME_TSV.equals(mimeType)) {
+            return '\t';
+        }
+        if (mimeType == null || MIME_PLAIN.equals(mimeType)) {
+            return DELIMITER_AUTO_PLAIN;
+        }
+        return DELIMITER_AUTO_COMMA;
+    }
+
+    // 读满缓冲区或读到文件末尾，切换为读模式，返回是否已到末尾
+    private static boolean fill(FileChannel channel, ByteBuffer bytes) throws IOException {
+        boolean endOfInput = false;
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes) < 0) {
+                endOfInput = true;
+                break;
+            }
+        }
+        bytes.flip();
+        return endOfInput;
+    }
+
+    private static void feed(RowReader reader, CharBuffer chars) {
+        chars.flip();
+        reader.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+        chars.clear();
+    }
+
+    /**
+     * 按BOM判断编码（UTF-8的BOM直接跳过，UTF-16由解码器处理）；没有BOM时开头是合法UTF-8则用UTF-8，否则用GBK
+     */
+    private static Charset detectCharset(ByteBuffer bytes, boolean endOfInput) {
+        int start = bytes.position();
+        if (bytes.remaining() >= 3 && (bytes.get(start) & 0xFF) == 0xEF
+                && (bytes.get(start + 1) & 0xFF) == 0xBB && (bytes.get(start + 2) & 0xFF) == 0xBF) {
+            bytes.position(start + 3);
+            return StandardCharsets.UTF_8;
+        }
+        if (bytes.remaining() >= 2) {
+            int first = bytes.get(start) & 0xFF;
+            int second = bytes.get(start + 1) & 0xFF;
+            if ((first == 0xFF && second == 0xFE) || (first == 0xFE && second == 0xFF)) {
+                return StandardCharsets.UTF_16;
+            }
+        }
+        return isValidUtf8(bytes, endOfInput) ? StandardCharsets.UTF_8 : Charset.forName("GBK");
+    }
+
+    // 只校验缓冲区中的内容，末尾被截断的多字节字符视为合法
+    private static boolean isValidUtf8(ByteBuffer bytes, boolean endOfInput) {
+        int i = bytes.position();
+        int limit = bytes.limit();
+        while (i < limit) {
+            int b = bytes.get(i) & 0xFF;
+            int extra;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                extra = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                extra = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                extra = 3;
+            } else {
+                return false;
+            }
+            for (int k = 1; k <= extra; k++) {
+                if (i + k >= limit) {
+                    return !endOfInput;
+                }
+                if ((bytes.get(i + k) & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += extra + 1;
+        }
+        return true;
+    }
+
+    /**
+     * 逐字符的行解析器（RFC 4180引号规则，兼容CR、LF和CRLF换行），状态跨缓冲区保留
+     */
+    private static final class RowReader {
+        private final ExcelUtils.OnWordParsedListener listener;
+        private final String[] cells = new String[WordColumns.COLUMN_COUNT];
+        private final StringBuilder field = new StringBuilder();
+        private int delimiter;
+        private boolean started;
+        private int column;
+        private int rowIndex;
+        private boolean inQuotes;
+        // 引号内遇到引号：下一个字符也是引号则为转义，否则引号结束
+        private boolean quotePending;
+        private boolean fieldQuoted;
+        // 上一个字符是\r，紧随的\n不再算作换行
+        private boolean skipLineFeed;
+
+        RowReader(int delimiter, ExcelUtils.OnWordParsedListener listener) {
+            this.delimiter = delimiter;
+            this.listener = listener;
+        }
+
+        void accept(char[] chars, int start, int end) {
+            if (!started && end > start) {
+                started = true;
+                // 解码器没有去掉的BOM
+                if (chars[start] == '\uFEFF') {
+                    start++;
+                }
+                if (delimiter < DELIMITER_PLAIN) {
+                    detectDelimiter(chars, start, end);
+                }
+            }
+            for (int i = start; i < end; i++) {
+                accept(chars[i]);
+            }
+        }
+
+        // 第一行含制表符时按TSV解析，否则纯文本按行、其余按逗号
+        private void detectDelimiter(char[] chars, int start, int end) {
+            boolean hasTab = false;
+            boolean hasComma = false;
+            for (int i = start; i < end && chars[i] != '\n' && chars[i] != '\r'; i++) {
+                hasTab |= chars[i] == '\t';
+                hasComma |= chars[i] == ',';
+            }
+            if (hasTab && !(hasComma && delimiter == DELIMITER_AUTO_COMMA)) {
+                delimiter = '\t';
+            } else {
+                delimiter = delimiter == DELIMITER_AUTO_PLAIN ? DELIMITER_PLAIN : ',';
+            }
+        }
+
+        private void accept(char c) {
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    return;
+                }
+            }
+            if (inQuotes) {
+                if (!quotePending) {
+                    if (c == '"') {
+                        quotePending = true;
+                    } else {
+                        field.append(c);
+                    }
+                    return;
+                }
+                quotePending = false;
+                if (c == '"') {
+                    field.append('"');
+                    return;
+                }
+                // 引号已结束，这个字符按引号外处理
+                inQuotes = false;
+            }
+
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                endRow();
+            } else if (c == delimiter) {
+                endField();
+            } else if (c == '"' && delimiter != DELIMITER_PLAIN && field.length() == 0 && !fieldQuoted) {
+                inQuotes = true;
+                fieldQuoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+
+        /**
+         * 文件结束：最后一行没有换行符时补上
+         */
+        void finish() {
+            if (field.length() > 0 || column > 0 || fieldQuoted) {
+                endRow();
+            }
+        }
+
+        private void endField() {
+            if (column < cells.length) {
+                cells[column] = field.toString();
+            }
+            column++;
+            field.setLength(0);
+            fieldQuoted = false;
+        }
+
+        private void endRow() {
+            endField();
+            if (delimiter == DELIMITER_PLAIN) {
+                splitPlainLine();
+            }
+            if (rowIndex++ > 0 || !WordColumns.isHeader(cells)) {
+                Word word = WordColumns.toWord(cells);
+                if (word != null) {
+                    listener.onWordParsed(word);
+                }
+            }
+            Arrays.fill(cells, null);
+            column = 0;
+            inQuotes = false;
+            quotePending = false;
+        }
+
+        // 纯文本行：第一个汉字之前是英文，从它开始是中文释义
+        private void splitPlainLine() {
+            String line = cells[0];
+            for (int i = 0; i < line.length(); ) {
+                int codePoint = line.codePointAt(i);
+                if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                    cells[0] = line.substring(0, i);
+                    cells[2] = line.substring(i);
+                    return;
+                }
+                i += Character.charCount(codePoint);
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.vocabularylearner.repository;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 拼写容错索引的本地单元测试：与逐个计算编辑距离的暴力查找比较结果，
+ * 覆盖超过64个字符的单词和查询（动态规划分支）以及距离阈值的边界
+ */
+public class FuzzyIndexTest {
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int MAX_DISTANCE = 3;
+
+    private static final String[] WORDS = {
+            "a", "an", "and", "ant", "apple", "apply", "ample", "maple", "kitten", "sitting", "mitten",
+            "smitten", "written", "bitten", "book", "back", "cook", "look", "brook", "crook",
+            "Receive", "deceive", "believe", "relieve", "achieve", "naïve", "café", "résumé", "über",
+            "ice-cream", "ice cream", "well-known", "o'clock",
+            "antidisestablishmentarianism", "pneumonoultramicroscopicsilicovolcanoconiosis",
+            repeat("abcdefgh", 8),                 // 64个字符：位并行的上限
+            repeat("abcdefgh", 8) + "i",           // 65个字符：动态规划
+            repeat("abcdefgh", 8) + "ij",
+            repeat("abcdefgh", 9),                 // 72个字符
+            repeat("supercalifragilistic", 4),     // 80个字符
+            repeat("supercalifragilistic", 4) + "expialidocious",
+            repeat("ab", 40),
+            repeat("ba", 40),
+    };
+
+    @Test
+    public void search_matchesBruteForce() {
+        FuzzyIndex index = indexOf(WORDS);
+        List<String> queries = new ArrayList<>();
+        for (String word : WORDS) {
+            queries.add(word);
+        }
+        // 对每个单词做1~4处随机编辑（最多比最大阈值多一处），得到不同距离的查询
+        Random random = new Random(7);
+        for (String word : WORDS) {
+            for (int edits = 1; edits <= MAX_DISTANCE + 1; edits++) {
+                queries.add(mutate(word, edits, random));
+            }
+        }
+        queries.add("");
+        queries.add("zzzz");
+        queries.add(repeat("x", 70));
+
+        for (String query : queries) {
+            for (int maxDistance = 0; maxDistance <= MAX_DISTANCE; maxDistance++) {
+                assertEquals("query \"" + query + "\", maxDistance " + maxDistance,
+                        bruteForce(WORDS, query, maxDistance), describe(index.search(query, maxDistance, UNLIMITED)));
+            }
+        }
+    }
+
+    @Test
+    public void search_distanceThresholdIsInclusive() {
+        FuzzyIndex index = indexOf(WORDS);
+        // kitten -> sitting 为3：阈值3时包含，阈值2时不包含
+        assertTrue(keys(index.search("sitting", 3, UNLIMITED)).contains("kitten"));
+        assertFalse(keys(index.search("sitting", 2, UNLIMITED)).contains("kitten"));
+
+        // 超过64个字符的单词与查询之间同样按阈值划分
+        String longWord = repeat("abcdefgh", 8) + "ij";
+        String query = repeat("abcdefgh", 8);
+        assertEquals(2, levenshtein(query, longWord));
+        assertTrue(keys(index.search(query, 2, UNLIMITED)).contains(longWord));
+        assertFalse(keys(index.search(query, 1, UNLIMITED)).contains(longWord));
+        String longQuery = repeat("abcdefgh", 8) + "xy";
+        assertTrue(keys(index.search(longQuery, 2, UNLIMITED)).contains(longWord));
+        assertFalse(keys(index.search(longQuery, 1, UNLIMITED)).contains(longWord));
+
+        // 阈值0只返回完全相同的单词（不区分大小写）
+        assertEquals(Collections.singletonList("receive"), keys(index.search("RECEIVE", 0, UNLIMITED)));
+    }
+
+    @Test
+    public void search_respectsLimitAndOrder() {
+        FuzzyIndex index = indexOf(WORDS);
+        List<String> all = describe(index.search("cook", 2, UNLIMITED));
+        List<String> limited = describe(index.search("cook", 2, 3));
+        assertEquals(3, limited.size());
+        assertEquals(all.subList(0, 3), limited);
+    }
+
+    @Test
+    public void search_picksUpWordsAddedLater() {
+        List<String> words = new ArrayList<>();
+        Collections.addAll(words, "apple", "maple");
+        FuzzyIndex index = new FuzzyIndex(sourceOf(words));
+        assertEquals(Collections.singletonList("apple"), keys(index.search("appel", 2, UNLIMITED)));
+
+        words.add("appeal");
+        assertEquals(bruteForce(words.toArray(new String[0]), "appel", 2),
+                describe(index.search("appel", 2, UNLIMITED)));
+    }
+
+    private static FuzzyIndex indexOf(String[] words) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, words);
+        return new FuzzyIndex(sourceOf(list));
+    }
+
+    // 单词ID为列表下标加一，只列出ID大于afterId的单词
+    private static FuzzyIndex.HeadwordSource sourceOf(List<String> words) {
+        return (afterId, visitor) -> {
+            for (int i = (int) afterId; i < words.size(); i++) {
+                visitor.visit(i + 1, words.get(i));
+            }
+        };
+    }
+
+    // 暴力查找：逐个计算编辑距离，排序规则与FuzzyIndex.search相同
+    private static List<String> bruteForce(String[] words, String query, int maxDistance) {
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        List<FuzzyIndex.Match> matches = new ArrayList<>();
+        if (!key.isEmpty()) {
+            for (int i = 0; i < words.length; i++) {
+                String word = words[i].toLowerCase(Locale.ROOT);
+                int distance = levenshtein(key, word);
+                if (distance <= maxDistance) {
+                    matches.add(new FuzzyIndex.Match(i + 1, word, distance));
+                }
+            }
+        }
+        matches.sort((m1, m2) -> {
+            if (m1.distance != m2.distance) {
+                return Integer.compare(m1.distance, m2.distance);
+            }
+            int lengthDiff1 = Math.abs(m1.key.length() - key.length());
+            int lengthDiff2 = Math.abs(m2.key.length() - key.length());
+            if (lengthDiff1 != lengthDiff2) {
+                return Integer.compare(lengthDiff1, lengthDiff2);
+            }
+            return m1.key.compareTo(m2.key);
+        });
+        return describe(matches);
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    // 随机替换、插入或删除edits次
+    private static String mutate(String word, int edits, Random random) {
+        StringBuilder builder = new StringBuilder(word);
+        for (int i = 0; i < edits; i++) {
+            int operation = builder.length() == 0 ? 1 : random.nextInt(3);
+            char c = (char) ('a' + random.nextInt(26));
+            if (operation == 0) {
+                builder.setCharAt(random.nextInt(builder.length()), c);
+            } else if (operation == 1) {
+                builder.insert(random.nextInt(builder.length() + 1), c);
+            } else {
+                builder.deleteCharAt(random.nextInt(builder.length()));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static List<String> describe(List<FuzzyIndex.Match> matches) {
+        List<String> result = new ArrayList<>();
+        for (FuzzyIndex.Match match : matches) {
+            result.add(match.id + ":" + match.key + ":" + match.distance);
+        }
+        return result;
+    }
+
+    private static List<String> keys(List<FuzzyIndex.Match> matches) {
+        List<String> result = new ArrayList<>();
+        for (FuzzyIndex.Match match : matches) {
+            result.add(match.key);
+        }
+        return result;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.vocabularylearner.repository;
+
+import com.example.vocabularylearner.db.WordDbHelper;
+import com.example.vocabularylearner.entity.ReviewState;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 复习调度的本地单元测试
+ */
+public class ReviewSchedulerTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    // 与标记熟悉（触发器和版本7迁移）写入的复习状态一致
+    private static ReviewState familiarState() {
+        ReviewState state = new ReviewState(1);
+        state.setIntervalDays(WordDbHelper.FAMILIAR_INTERVAL_DAYS);
+        state.setReps(1);
+        state.setDueAt(NOW);
+        return state;
+    }
+
+    @Test
+    public void familiarWord_good_staysFamiliar() {
+        ReviewState state = familiarState();
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_GOOD, NOW);
+        assertTrue(state.getIntervalDays() > WordDbHelper.FAMILIAR_INTERVAL_DAYS);
+        assertEquals(2, state.getReps());
+    }
+
+    @Test
+    public void familiarWord_hard_staysFamiliar() {
+        ReviewState state = familiarState();
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_HARD, NOW);
+        assertTrue(state.getIntervalDays() >= WordDbHelper.FAMILIAR_INTERVAL_DAYS);
+    }
+
+    @Test
+    public void newWord_good_usesFixedSteps() {
+        ReviewState state = new ReviewState(1);
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_GOOD, NOW);
+        assertEquals(1, state.getIntervalDays());
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_GOOD, NOW);
+        assertEquals(6, state.getIntervalDays());
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_GOOD, NOW);
+        assertEquals(15, state.getIntervalDays());
+    }
+
+    @Test
+    public void again_resetsInterval() {
+        ReviewState state = familiarState();
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_AGAIN, NOW);
+        assertEquals(0, state.getIntervalDays());
+        assertEquals(1, state.getLapses());
+        ReviewScheduler.apply(state, ReviewScheduler.GRADE_GOOD, NOW);
+        assertEquals(1, state.getIntervalDays());
+    }
+}